@@ -0,0 +1,71 @@
+/**
+ * Maps Player.ask() action strings to and from small integer codes, for tools that store or predict
+ * actions as numbers.
+ *
+ * Codes 0-4 play the card at that index, 5-9 discard index (code - 5), 10-14 hint the color
+ * (code - 10), and 15-19 hint the value (code - 14). The draw index of a play or discard is kept
+ * separately by drawIndex(); decode() draws back into the slot that was emptied, as Player does.
+ */
+public class ActionCodec {
+	public static final int NUM_ACTIONS = 20;
+	public static final int PLAY = 0;
+	public static final int DISCARD = 5;
+	public static final int COLORHINT = 10;
+	public static final int NUMBERHINT = 15;
+
+	/**
+	 * @throws IllegalArgumentException if action is not a well-formed ask() action
+	 */
+	public static int encode(String action) {
+		String[] words = action.trim().split("\\s+");
+		int arg = (words.length > 1) ? parseArg(words[1], action) : -1;
+		int code = switch (words[0]) {
+			case "PLAY" -> (words.length == 3 && arg >= 0 && arg < Hanabi.HAND_SIZE) ? PLAY + arg : -1;
+			case "DISCARD" -> (words.length == 3 && arg >= 0 && arg < Hanabi.HAND_SIZE) ? DISCARD + arg : -1;
+			case "COLORHINT" -> (words.length == 2 && Colors.isSuit(arg)) ? COLORHINT + arg : -1;
+			case "NUMBERHINT" -> (words.length == 2 && arg >= Card.MIN_VALUE && arg <= Card.MAX_VALUE)
+					? NUMBERHINT + arg - Card.MIN_VALUE : -1;
+			default -> -1;
+		};
+		if (code < 0) {
+			throw new IllegalArgumentException("ActionCodec.encode() - bad action " + action);
+		}
+		return code;
+	}
+
+	/**
+	 * @return the draw index of a play or discard; -1 for a hint
+	 */
+	public static int drawIndex(String action) {
+		String[] words = action.trim().split("\\s+");
+		return (words.length == 3) ? parseArg(words[2], action) : -1;
+	}
+
+	/**
+	 * @throws IllegalArgumentException if code is not in 0 to NUM_ACTIONS - 1
+	 */
+	public static String decode(int code) {
+		if (code < 0 || code >= NUM_ACTIONS) {
+			throw new IllegalArgumentException("ActionCodec.decode() - bad code " + code);
+		}
+		if (code < DISCARD) {
+			return "PLAY " + code + " " + code;
+		}
+		if (code < COLORHINT) {
+			return "DISCARD " + (code - DISCARD) + " " + (code - DISCARD);
+		}
+		if (code < NUMBERHINT) {
+			return "COLORHINT " + (code - COLORHINT);
+		}
+		return "NUMBERHINT " + (code - NUMBERHINT + Card.MIN_VALUE);
+	}
+
+	private static int parseArg(String word, String action) {
+		try {
+			return Integer.parseInt(word);
+		}
+		catch (NumberFormatException e) {
+			throw new IllegalArgumentException("ActionCodec - bad action " + action, e);
+		}
+	}
+}
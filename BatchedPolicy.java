@@ -0,0 +1,137 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Shares one PolicyNetwork between concurrently running games, evaluating their requests in batches.
+ *
+ * This is flat combining: a caller queues its request and tries the lock. Whoever gets it becomes the
+ * combiner, takes up to MAX_BATCH queued requests (its own among them), runs them through the
+ * network as one batch, and hands each caller its scores. The other callers wait for their request
+ * to be marked done, or for the lock to come free so that they can combine the next batch. With one
+ * game at a time every batch holds one request; with many, a batch collects the requests that
+ * queued while the previous one ran, and the weights are read once for all of them.
+ */
+public class BatchedPolicy {
+	public static final int MAX_BATCH = 64;
+
+	private static final Map<Path, BatchedPolicy> loaded = new ConcurrentHashMap<Path, BatchedPolicy>();
+
+	private final PolicyNetwork net;
+	private final ConcurrentLinkedQueue<Request> pending = new ConcurrentLinkedQueue<Request>();
+	private final ReentrantLock combiner = new ReentrantLock();
+	private final Request[] batch = new Request[MAX_BATCH];
+	private final float[] inputs;
+	private final float[] outputs;
+	private final float[] scratchA;
+	private final float[] scratchB;
+
+	private final LongAdder requests = new LongAdder();
+	private final LongAdder batches = new LongAdder();
+
+	/**
+	 * One caller's features and scores. A caller reuses its Request for every evaluation, so the only
+	 * per-call allocation is the queue node.
+	 */
+	public static class Request {
+		public final float[] features;
+		public final float[] scores;
+		private volatile boolean done;
+
+		public Request(PolicyNetwork net) {
+			features = new float[net.inputSize()];
+			scores = new float[net.outputSize()];
+		}
+	}
+
+	public BatchedPolicy(PolicyNetwork net) {
+		this.net = net;
+		inputs = new float[MAX_BATCH * net.inputSize()];
+		outputs = new float[MAX_BATCH * net.outputSize()];
+		scratchA = new float[MAX_BATCH * net.maxWidth()];
+		scratchB = new float[MAX_BATCH * net.maxWidth()];
+	}
+
+	/**
+	 * @return the shared policy for a weights file, loaded on first use
+	 * @throws IllegalArgumentException if the file cannot be read
+	 */
+	public static BatchedPolicy forFile(Path file) {
+		return loaded.computeIfAbsent(file.toAbsolutePath(), p -> {
+			try {
+				return new BatchedPolicy(PolicyNetwork.load(p));
+			}
+			catch (IOException e) {
+				throw new IllegalArgumentException("BatchedPolicy.forFile() - cannot read " + p, e);
+			}
+		});
+	}
+
+	public PolicyNetwork getNetwork() {
+		return net;
+	}
+
+	/**
+	 * Fills request.scores from request.features, possibly in a batch with other threads' requests.
+	 */
+	public void evaluate(Request request) {
+		request.done = false;
+		pending.add(request);
+		requests.increment();
+		while (!request.done) {
+			if (combiner.tryLock()) {
+				try {
+					combine();
+				}
+				finally {
+					combiner.unlock();
+				}
+			}
+			else {
+				Thread.yield(); // games usually outnumber cores, so let the combiner run
+			}
+		}
+	}
+
+	private void combine() {
+		int inWidth = net.inputSize();
+		int outWidth = net.outputSize();
+		int n = 0;
+		Request r;
+		while (n < MAX_BATCH && (r = pending.poll()) != null) {
+			System.arraycopy(r.features, 0, inputs, n * inWidth, inWidth);
+			batch[n++] = r;
+		}
+		if (n == 0) {
+			return;
+		}
+		net.forward(inputs, n, outputs, scratchA, scratchB);
+		batches.increment();
+		for (int i = 0; i < n; i++) {
+			System.arraycopy(outputs, i * outWidth, batch[i].scores, 0, outWidth);
+			batch[i].done = true;
+			batch[i] = null;
+		}
+	}
+
+	public String report() {
+		long b = batches.sum();
+		return String.format("Policy: %d evaluations in %d batches (%.2f per batch)%n", requests.sum(), b,
+				(b == 0) ? 0.0 : requests.sum() / (double) b);
+	}
+
+	/**
+	 * @return the report for every loaded policy
+	 */
+	public static String reportAll() {
+		StringBuilder sb = new StringBuilder();
+		for (BatchedPolicy p : loaded.values()) {
+			sb.append(p.report());
+		}
+		return sb.toString();
+	}
+}
@@ -37,15 +37,15 @@ public class Board {
 	
 	@Override
 	public String toString() {
-		String result = "";
-		result += "  Hints remaining: " + numHints + "\n";
-		result += "  Fuses remaining: " + numFuses + "\n";
-		result += "  Cards remaining in deck: " + deckSize + "\n";
-		result += "  Tableau: Red " + tableau.get(Colors.RED) + ", Yellow " + tableau.get(Colors.YELLOW) +
-				", Blue " + tableau.get(Colors.BLUE) + ", Green " + tableau.get(Colors.GREEN) +
-				", White " + tableau.get(Colors.WHITE) + "\n";
-		result += "  Discards: " + discards.toString();
-		return result;
+		StringBuilder result = new StringBuilder(256);
+		result.append("  Hints remaining: ").append(numHints).append('\n');
+		result.append("  Fuses remaining: ").append(numFuses).append('\n');
+		result.append("  Cards remaining in deck: ").append(deckSize).append('\n');
+		result.append("  Tableau: Red ").append(tableau.get(Colors.RED)).append(", Yellow ").append(tableau.get(Colors.YELLOW))
+				.append(", Blue ").append(tableau.get(Colors.BLUE)).append(", Green ").append(tableau.get(Colors.GREEN))
+				.append(", White ").append(tableau.get(Colors.WHITE)).append('\n');
+		result.append("  Discards: ").append(discards);
+		return result.toString();
 	}
 	
 	public void discard(Card c) {
@@ -53,6 +53,18 @@ public class Board {
 		Collections.sort(discards);
 	}
 	
+	/**
+	 * @return the copies of each card identity in the discard pile, two bits each in CardKnowledge.bitOf() order
+	 */
+	public long packedDiscards() {
+		long counts = 0;
+		for (int i = 0; i < discards.size(); i++) {
+			Card c = discards.get(i);
+			counts += 1L << (2 * CardKnowledge.bitOf(c.color, c.value));
+		}
+		return counts;
+	}
+
 	public int getTableauScore() {
 		int total = 0;
 		for (int i = 0; i < tableau.size(); i++) {
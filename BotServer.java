@@ -0,0 +1,442 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Serves Hanabi games to bots running outside this JVM, over TCP on localhost or a Unix-domain socket.
+ *
+ * A client opens a session with one line:
+ * <pre>
+ * SESSION &lt;games&gt; &lt;baseSeed&gt; &lt;concurrency&gt; &lt;opponent&gt;
+ * </pre>
+ * where opponent is "remote" for the client to play both seats, or a Player class name to sit in the
+ * second seat. The server then plays that many seeded games, up to concurrency at once, all over
+ * the one connection. Every server line starts with a game number and seat:
+ * <pre>
+ * ASK g s hand=5 partner=R1,Y3,B2,G5,W1 hints=8 fuses=3 deck=40 tableau=0,0,0,0,0 discards=-
+ * TELL g s YOURPLAY|YOURDISCARD index card drawIndex drew legal
+ * TELL g s PARTNERPLAY|PARTNERDISCARD index card draw drawIndex legal
+ * TELL g s COLORHINT|NUMBERHINT hinted indices
+ * END g score
+ * ERROR g message
+ * DONE games mean errors
+ * </pre>
+ * The client answers each ASK with "g s ACTION", where ACTION is a Player.ask() string. Answers may
+ * come in any order. A line that is not of that form gets "ERROR g message" back (g is -1 if it
+ * cannot be read); if it names a game and seat waiting on an ask, that game ends in an error. An ask
+ * left unanswered for hanabi.answerTimeoutSeconds (300 by default) also ends its game in an error. Lines for all running games share one queue, and the writer flushes whatever
+ * has piled up in a single write, so many asks travel per round trip instead of one per syscall.
+ */
+public class BotServer {
+	public static final long ANSWER_TIMEOUT_SECONDS = Long.getLong("hanabi.answerTimeoutSeconds", 300);
+
+	private final ServerSocketChannel server;
+
+	/**
+	 * @param address A TCP port (bound to localhost) or "unix:/path/to/socket".
+	 */
+	public BotServer(String address) throws IOException {
+		SocketAddress bindTo;
+		if (address.startsWith("unix:")) {
+			Path path = Path.of(address.substring("unix:".length()));
+			Files.deleteIfExists(path);
+			server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+			bindTo = UnixDomainSocketAddress.of(path);
+		}
+		else {
+			server = ServerSocketChannel.open(StandardProtocolFamily.INET);
+			bindTo = new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(address));
+		}
+		server.bind(bindTo);
+	}
+
+	/**
+	 * Accepts connections forever, serving each on its own thread.
+	 */
+	public void serve() throws IOException {
+		while (true) {
+			SocketChannel channel = server.accept();
+			if (channel.getRemoteAddress() instanceof InetSocketAddress) {
+				// Asks are tiny and latency-bound; don't let Nagle hold them for the client's delayed ACK.
+				channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+			}
+			Thread t = new Thread(() -> new Session(channel).run(), "hanabi-session");
+			t.setDaemon(true);
+			t.start();
+		}
+	}
+
+	/**
+	 * One client connection, carrying any number of concurrent games.
+	 */
+	private static class Session {
+		private final SocketChannel channel;
+		private final BlockingQueue<String> outbound = new LinkedBlockingQueue<String>();
+		private final Map<Integer, CompletableFuture<String>> pendingAsks = new ConcurrentHashMap<Integer, CompletableFuture<String>>();
+		private volatile boolean closed;
+
+		Session(SocketChannel channel) {
+			this.channel = channel;
+		}
+
+		void run() {
+			try (channel) {
+				BufferedReader in = new BufferedReader(new InputStreamReader(inputStream(), StandardCharsets.US_ASCII));
+				Writer out = new BufferedWriter(new OutputStreamWriter(outputStream(), StandardCharsets.US_ASCII), 1 << 16);
+				Thread writer = new Thread(() -> writeLoop(out), "hanabi-session-writer");
+				writer.setDaemon(true);
+				writer.start();
+				try {
+					String[] words = readLineOrEmpty(in).trim().split("\\s+");
+					int games;
+					long baseSeed;
+					int concurrency;
+					Supplier<Player> second;
+					try {
+						if (words.length != 5 || !words[0].equals("SESSION")) {
+							throw new IllegalArgumentException("expected SESSION <games> <baseSeed> <concurrency> <opponent>");
+						}
+						games = Integer.parseInt(words[1]);
+						baseSeed = Long.parseLong(words[2]);
+						concurrency = Integer.parseInt(words[3]);
+						second = words[4].equals("remote") ? null : PlayerFactory.forName(words[4]);
+						if (games < 0 || concurrency < 1) {
+							throw new IllegalArgumentException("games must be at least 0 and concurrency at least 1");
+						}
+					}
+					catch (IllegalArgumentException e) { // NumberFormatException included
+						send("ERROR -1 " + String.valueOf(e.getMessage()).replace('\n', ' '));
+						return;
+					}
+					Thread reader = new Thread(() -> readLoop(in), "hanabi-session-reader");
+					reader.setDaemon(true);
+					reader.start();
+					playSession(games, baseSeed, concurrency, second);
+				}
+				finally {
+					send(null);
+					writer.join();
+				}
+			}
+			catch (IOException | RuntimeException e) {
+				System.out.println("BotServer session ended: " + e);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			finally {
+				close(new IOException("session closed"));
+			}
+		}
+
+		/*
+		 * Channels.newInputStream() and newOutputStream() share one lock on a blocking channel, so a
+		 * reader waiting for input would stall the writer. These call the channel directly instead.
+		 */
+		private InputStream inputStream() {
+			return new InputStream() {
+				@Override
+				public int read(byte[] b, int off, int len) throws IOException {
+					return channel.read(ByteBuffer.wrap(b, off, len));
+				}
+
+				@Override
+				public int read() throws IOException {
+					byte[] one = new byte[1];
+					int n = read(one, 0, 1);
+					return (n < 0) ? -1 : one[0] & 0xFF;
+				}
+			};
+		}
+
+		private OutputStream outputStream() {
+			return new OutputStream() {
+				@Override
+				public void write(byte[] b, int off, int len) throws IOException {
+					ByteBuffer buf = ByteBuffer.wrap(b, off, len);
+					while (buf.hasRemaining()) {
+						channel.write(buf);
+					}
+				}
+
+				@Override
+				public void write(int b) throws IOException {
+					write(new byte[] { (byte) b }, 0, 1);
+				}
+			};
+		}
+
+		/**
+		 * @param second Makes the player for the second seat; null for the client to play it.
+		 */
+		private void playSession(int games, long baseSeed, int concurrency, Supplier<Player> second) {
+			ExecutorService pool = GameBatch.newPool(concurrency);
+			List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+			for (int g = 0; g < games; g++) {
+				final int gameId = g;
+				results.add(pool.submit(() -> {
+					Player p1 = new RemotePlayer(this, gameId, 0);
+					Player p2 = (second == null) ? new RemotePlayer(this, gameId, 1) : second.get();
+					int score = new Hanabi(false, p1, p2, GameBatch.seedFor(baseSeed, gameId)).play();
+					send("END " + gameId + " " + score);
+					return score;
+				}));
+			}
+			ScoreStats stats = new ScoreStats();
+			for (int g = 0; g < games; g++) {
+				try {
+					stats.add(results.get(g).get());
+				}
+				catch (ExecutionException e) {
+					stats.addError();
+					send("ERROR " + g + " " + String.valueOf(e.getCause().getMessage()).replace('\n', ' '));
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+			pool.shutdownNow();
+			send(String.format("DONE %d %.4f %d", stats.getGames(), stats.getMean(), stats.getErrors()));
+		}
+
+		/**
+		 * Queues a line for the writer; null asks the writer to finish once the queue is empty.
+		 */
+		void send(String line) {
+			outbound.add((line == null) ? "" : line);
+		}
+
+		/**
+		 * Sends an ASK line and waits for the client's answer to it.
+		 */
+		String ask(int gameId, int seat, String askLine) {
+			CompletableFuture<String> answer = new CompletableFuture<String>();
+			// Under the same lock as close(), so an ask is either refused or failed by it, never stranded.
+			synchronized (pendingAsks) {
+				if (closed) {
+					throw new IllegalStateException("BotServer - connection closed");
+				}
+				pendingAsks.put(key(gameId, seat), answer);
+			}
+			send(askLine);
+			try {
+				return answer.get(ANSWER_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("BotServer - interrupted waiting for game " + gameId, e);
+			}
+			catch (ExecutionException e) {
+				throw new IllegalStateException("BotServer - no answer for game " + gameId, e.getCause());
+			}
+			catch (TimeoutException e) {
+				pendingAsks.remove(key(gameId, seat), answer);
+				throw new IllegalStateException("BotServer - no answer for game " + gameId + " in "
+						+ ANSWER_TIMEOUT_SECONDS + " s", e);
+			}
+		}
+
+		private static int key(int gameId, int seat) {
+			return gameId * 2 + seat;
+		}
+
+		private void writeLoop(Writer out) {
+			List<String> batch = new ArrayList<String>();
+			try {
+				while (true) {
+					batch.add(outbound.take());
+					outbound.drainTo(batch);
+					boolean finished = false;
+					for (String line : batch) {
+						if (line.isEmpty()) {
+							finished = true;
+							break;
+						}
+						out.write(line);
+						out.write('\n');
+					}
+					out.flush();
+					batch.clear();
+					if (finished) {
+						return;
+					}
+				}
+			}
+			catch (IOException e) {
+				close(e);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		private void readLoop(BufferedReader in) {
+			try {
+				String line;
+				while ((line = in.readLine()) != null) {
+					answer(line);
+				}
+				close(new IOException("client closed the connection"));
+			}
+			catch (IOException e) {
+				close(e);
+			}
+		}
+
+		/**
+		 * Completes the ask a client line answers, or replies ERROR if the line is malformed.
+		 */
+		private void answer(String line) {
+			String[] words = line.trim().split("\\s+", 3);
+			int gameId;
+			int seat;
+			try {
+				gameId = Integer.parseInt(words[0]);
+				seat = (words.length > 1) ? Integer.parseInt(words[1]) : -1;
+			}
+			catch (NumberFormatException e) {
+				send("ERROR -1 malformed answer: " + line);
+				return;
+			}
+			if (seat != 0 && seat != 1) {
+				send("ERROR " + gameId + " malformed answer: " + line);
+				return;
+			}
+			CompletableFuture<String> answer = pendingAsks.remove(key(gameId, seat));
+			if (words.length < 3) {
+				send("ERROR " + gameId + " malformed answer: " + line);
+				if (answer != null) {
+					answer.completeExceptionally(new IllegalArgumentException("malformed answer: " + line));
+				}
+			}
+			else if (answer != null) {
+				answer.complete(words[2]);
+			}
+			else {
+				send("ERROR " + gameId + " no ask waiting for game " + gameId + " seat " + seat);
+			}
+		}
+
+		/**
+		 * Refuses further asks and fails every waiting one.
+		 */
+		private void close(Exception e) {
+			synchronized (pendingAsks) {
+				closed = true;
+				for (CompletableFuture<String> answer : pendingAsks.values()) {
+					answer.completeExceptionally(e);
+				}
+				pendingAsks.clear();
+			}
+		}
+
+		private static String readLineOrEmpty(BufferedReader in) throws IOException {
+			String line = in.readLine();
+			return (line == null) ? "" : line;
+		}
+	}
+
+	/**
+	 * A seat whose moves come from the client and who is told about every move the game makes.
+	 */
+	private static class RemotePlayer extends Player {
+		private final Session session;
+		private final int gameId;
+		private final int seat;
+		private final String prefix;
+
+		RemotePlayer(Session session, int gameId, int seat) {
+			this.session = session;
+			this.gameId = gameId;
+			this.seat = seat;
+			this.prefix = gameId + " " + seat + " ";
+		}
+
+		@Override
+		public String ask(int yourHandSize, Hand partnerHand, Board boardState) {
+			return session.ask(gameId, seat, "ASK " + prefix + "hand=" + yourHandSize + " partner="
+					+ LineProtocol.hand(partnerHand) + " " + LineProtocol.board(boardState));
+		}
+
+		@Override
+		public void tellPartnerDiscard(Hand startHand, Card discard, int disIndex, Card draw, int drawIndex,
+									   Hand finalHand, Board boardState) {
+			session.send("TELL " + prefix + "PARTNERDISCARD " + disIndex + " " + LineProtocol.card(discard) + " "
+					+ LineProtocol.card(draw) + " " + drawIndex + " true");
+		}
+
+		@Override
+		public void tellYourDiscard(Card discard, int disIndex, int drawIndex, boolean drawSucceeded, Board boardState) {
+			session.send("TELL " + prefix + "YOURDISCARD " + disIndex + " " + LineProtocol.card(discard) + " "
+					+ drawIndex + " " + drawSucceeded + " true");
+		}
+
+		@Override
+		public void tellPartnerPlay(Hand startHand, Card play, int playIndex, Card draw, int drawIndex,
+									Hand finalHand, boolean wasLegalPlay, Board boardState) {
+			session.send("TELL " + prefix + "PARTNERPLAY " + playIndex + " " + LineProtocol.card(play) + " "
+					+ LineProtocol.card(draw) + " " + drawIndex + " " + wasLegalPlay);
+		}
+
+		@Override
+		public void tellYourPlay(Card play, int playIndex, int drawIndex, boolean drawSucceeded,
+								 boolean wasLegalPlay, Board boardState) {
+			session.send("TELL " + prefix + "YOURPLAY " + playIndex + " " + LineProtocol.card(play) + " "
+					+ drawIndex + " " + drawSucceeded + " " + wasLegalPlay);
+		}
+
+		@Override
+		public void tellColorHint(int color, ArrayList<Integer> indices, Hand partnerHand, Board boardState) {
+			session.send("TELL " + prefix + "COLORHINT " + color + " " + LineProtocol.indices(indices));
+		}
+
+		@Override
+		public void tellNumberHint(int number, ArrayList<Integer> indices, Hand partnerHand, Board boardState) {
+			session.send("TELL " + prefix + "NUMBERHINT " + number + " " + LineProtocol.indices(indices));
+		}
+	}
+
+	/**
+	 * Usage: serve &lt;port | unix:/path&gt;
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 1) {
+			System.out.println("Usage: serve <port | unix:/path>");
+			return;
+		}
+		BotServer server = new BotServer(args[0]);
+		System.out.println("Serving Hanabi on " + args[0]);
+		server.serve();
+	}
+}
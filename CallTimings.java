@@ -0,0 +1,69 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-call latency histograms for the Player methods that Hanabi.play() invokes.
+ *
+ * One instance can be handed to any number of games (see Hanabi.setTimings()), including games
+ * running in parallel. Times are in nanoseconds.
+ */
+public class CallTimings {
+	public static final int ASK = 0;
+	public static final int TELL_PARTNER_PLAY = 1;
+	public static final int TELL_YOUR_PLAY = 2;
+	public static final int TELL_PARTNER_DISCARD = 3;
+	public static final int TELL_YOUR_DISCARD = 4;
+	public static final int TELL_COLOR_HINT = 5;
+	public static final int TELL_NUMBER_HINT = 6;
+	public static final int NUM_CALLS = 7;
+
+	private static final String[] NAMES = { "ask", "tellPartnerPlay", "tellYourPlay", "tellPartnerDiscard",
+			"tellYourDiscard", "tellColorHint", "tellNumberHint" };
+
+	private final LatencyHistogram[] histograms = new LatencyHistogram[NUM_CALLS];
+	private final LongAdder missedDeadlines = new LongAdder();
+
+	public CallTimings() {
+		for (int i = 0; i < NUM_CALLS; i++) {
+			histograms[i] = new LatencyHistogram();
+		}
+	}
+
+	public void record(int call, long nanos) {
+		histograms[call].record(nanos);
+	}
+
+	public LatencyHistogram get(int call) {
+		return histograms[call];
+	}
+
+	/**
+	 * Counts an ask() that returned after the deadline it was given.
+	 */
+	public void missedDeadline() {
+		missedDeadlines.increment();
+	}
+
+	public long getMissedDeadlines() {
+		return missedDeadlines.sum();
+	}
+
+	/**
+	 * @return one line per call that was timed, with p50, p99 and max in microseconds
+	 */
+	public String report() {
+		StringBuilder result = new StringBuilder();
+		result.append(String.format("%-20s %12s %10s %10s %10s%n", "Call", "Count", "p50 us", "p99 us", "max us"));
+		for (int i = 0; i < NUM_CALLS; i++) {
+			LatencyHistogram h = histograms[i];
+			if (h.getCount() == 0) {
+				continue;
+			}
+			result.append(String.format("%-20s %12d %10.2f %10.2f %10.2f%n", NAMES[i], h.getCount(),
+					h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(99) / 1000.0, h.getMax() / 1000.0));
+		}
+		if (missedDeadlines.sum() > 0) {
+			result.append("Moves past deadline: " + missedDeadlines.sum() + "\n");
+		}
+		return result.toString();
+	}
+}
@@ -4,9 +4,18 @@ public class Card implements Comparable<Card> {
 	public static final int MIN_VALUE = 1;
 	public static final int MAX_VALUE = 5;
 
+	private static final int[] COPIES = { 3, 2, 2, 2, 1 };
+
 	public final int color;
 	public final int value;
 	
+	/**
+	 * @return how many copies of each card with this value the deck holds
+	 */
+	public static int copiesOf(int value) {
+		return COPIES[value - MIN_VALUE];
+	}
+
 	public Card(int color, int value) {
 		this.color = color;
 		this.value = value;
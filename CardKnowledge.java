@@ -6,8 +6,12 @@ import java.util.Set;
  * Tracks possible values for one unknown card
  */
 public class CardKnowledge {
-    public Set<Card> options;
+    public Set<Card> options; // change only through the methods below, which keep mask in step
     boolean hasBeenHinted;
+    private int mask; // options as bitOf() bits
+
+    private static final int ALL_VALUES_OF_FIRST_COLOR = (1 << Card.MAX_VALUE) - 1;
+    private static final int FIRST_VALUE_OF_ALL_COLORS = 0x108421; // bit 0 of every color's group of five
 
     /**
      * Allow all possible cards
@@ -30,11 +34,26 @@ public class CardKnowledge {
 
                 if (impossibleCards == null || !impossibleCards.contains(theCard)) {
                     options.add(theCard);
+                    mask |= 1 << bitOf(clr, val);
                 }
             }
         }
     }
 
+    /**
+     * @return the bit for one card identity in an option mask: color * 5 + (value - 1)
+     */
+    public static int bitOf(int clr, int val) {
+        return clr * Card.MAX_VALUE + (val - Card.MIN_VALUE);
+    }
+
+    /**
+     * @return the remaining options as a 25-bit mask, using bitOf() positions
+     */
+    public int optionMask() {
+        return mask;
+    }
+
     public int numOptions(){
         return options.size();
     }
@@ -42,28 +61,46 @@ public class CardKnowledge {
     public void knowColor(int clr){
         hasBeenHinted = true;
         options.removeIf(crd -> crd.color != clr);
+        mask &= colorBits(clr);
     }
 
     public void knowValue(int val){
         hasBeenHinted = true;
         options.removeIf(crd -> crd.value != val);
+        mask &= valueBits(val);
     }
 
 
     public void eliminateColor(int clr){
         options.removeIf(crd -> crd.color == clr);
+        mask &= ~colorBits(clr);
     }
 
     public void eliminateValue(int val){
         options.removeIf(crd -> crd.value == val);
+        mask &= ~valueBits(val);
     }
 
     public void eliminateCard(Card crd){
-        options.remove(crd);
+        if (crd != null && options.remove(crd)) {
+            mask &= ~(1 << bitOf(crd.color, crd.value));
+        }
     }
 
     public void eliminateNonPlayableOptions(Board b) {
         options.removeIf(crd -> !(b.isLegalPlay(crd)));
+        mask = 0;
+        for (Card crd : options) {
+            mask |= 1 << bitOf(crd.color, crd.value);
+        }
+    }
+
+    private static int colorBits(int clr) {
+        return ALL_VALUES_OF_FIRST_COLOR << bitOf(clr, Card.MIN_VALUE);
+    }
+
+    private static int valueBits(int val) {
+        return FIRST_VALUE_OF_ALL_COLORS << (val - Card.MIN_VALUE);
     }
 
     /**
@@ -0,0 +1,197 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * A long simulation that survives being killed: games 0 to games - 1 of a base seed, split into
+ * shards of SHARD_GAMES whose results are checkpointed to a file as they finish.
+ *
+ * The checkpoint is rewritten at most every CHECKPOINT_MILLIS, and always at the end, by writing a
+ * temporary file, forcing it to disk and renaming it over the old one, so a crash leaves either the
+ * old checkpoint or the new one and never half of one. Restarting with the same arguments skips the
+ * shards already recorded. Game g is always dealt with GameBatch.seedFor(baseSeed, g) and shard
+ * results are merged in shard order, so a resumed run reports exactly what an uninterrupted one would.
+ *
+ * Checkpoint format:
+ * <pre>
+ * run &lt;games&gt; &lt;baseSeed&gt; &lt;FirstPlayer&gt; &lt;SecondPlayer&gt;
+ * shard &lt;index&gt; &lt;ScoreStats.encode()&gt;
+ * ...
+ * </pre>
+ */
+public class CheckpointedRun {
+	public static final int SHARD_GAMES = 4 * GameBatch.CHUNK_SIZE;
+	private static final long CHECKPOINT_MILLIS = 10_000;
+
+	private final Path file;
+	private final String header;
+	private final int games;
+	private final long baseSeed;
+	private final Supplier<Player> first;
+	private final Supplier<Player> second;
+	private final ScoreStats[] shards; // null until that shard is done
+
+	/**
+	 * Loads the checkpoint file if there is one.
+	 * @throws IllegalArgumentException if the checkpoint is for a different run or is malformed
+	 */
+	public CheckpointedRun(Path file, int games, long baseSeed, String firstName, String secondName) throws IOException {
+		this.file = file;
+		this.header = "run " + games + " " + baseSeed + " " + firstName + " " + secondName;
+		this.games = games;
+		this.baseSeed = baseSeed;
+		this.first = PlayerFactory.forName(firstName);
+		this.second = PlayerFactory.forName(secondName);
+		this.shards = new ScoreStats[(games + SHARD_GAMES - 1) / SHARD_GAMES];
+		if (Files.exists(file)) {
+			load();
+		}
+	}
+
+	private void load() throws IOException {
+		List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+		if (lines.isEmpty() || !lines.get(0).equals(header)) {
+			throw new IllegalArgumentException("CheckpointedRun - " + file + " is for another run: "
+					+ (lines.isEmpty() ? "(empty)" : lines.get(0)));
+		}
+		for (int n = 1; n < lines.size(); n++) {
+			String[] words = lines.get(n).split(" ", 3);
+			if (words.length != 3 || !words[0].equals("shard")) {
+				throw new IllegalArgumentException("CheckpointedRun - " + file + " line " + (n + 1) + " is malformed");
+			}
+			int index = Integer.parseInt(words[1]);
+			if (index < 0 || index >= shards.length) {
+				throw new IllegalArgumentException("CheckpointedRun - " + file + " has no shard " + index);
+			}
+			shards[index] = ScoreStats.decode(words[2]);
+		}
+	}
+
+	private void save() throws IOException {
+		StringBuilder sb = new StringBuilder(header).append('\n');
+		for (int i = 0; i < shards.length; i++) {
+			if (shards[i] != null) {
+				sb.append("shard ").append(i).append(' ').append(shards[i].encode()).append('\n');
+			}
+		}
+		Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer b = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+			while (b.hasRemaining()) {
+				channel.write(b);
+			}
+			channel.force(true);
+		}
+		Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	public int shardsDone() {
+		int done = 0;
+		for (ScoreStats s : shards) {
+			if (s != null) {
+				done++;
+			}
+		}
+		return done;
+	}
+
+	/**
+	 * @return the games in shards not yet in the checkpoint; the last shard may be short
+	 */
+	public long gamesLeft() {
+		long left = 0;
+		for (int i = 0; i < shards.length; i++) {
+			if (shards[i] == null) {
+				left += Math.min(games, (i + 1) * SHARD_GAMES) - i * SHARD_GAMES;
+			}
+		}
+		return left;
+	}
+
+	/**
+	 * Plays every shard not yet in the checkpoint, checkpointing as they finish.
+	 * @param report Counts each finished game, or null.
+	 * @return the merged results of all shards
+	 */
+	public ScoreStats run(ExecutorService pool, RunReport report) throws IOException, InterruptedException {
+		CompletionService<Integer> done = new ExecutorCompletionService<Integer>(pool);
+		int pending = 0;
+		for (int i = 0; i < shards.length; i++) {
+			if (shards[i] == null) {
+				final int shard = i;
+				final int from = shard * SHARD_GAMES;
+				final int to = Math.min(games, from + SHARD_GAMES);
+				done.submit(() -> {
+					ScoreStats s = GameBatch.play(first, second, baseSeed, from, to, report);
+					synchronized (shards) {
+						shards[shard] = s;
+					}
+					return shard;
+				});
+				pending++;
+			}
+		}
+		long lastSave = System.currentTimeMillis();
+		for (; pending > 0; pending--) {
+			try {
+				done.take().get();
+			}
+			catch (ExecutionException e) {
+				throw new IllegalStateException("CheckpointedRun.run() - a shard failed", e.getCause());
+			}
+			if (System.currentTimeMillis() - lastSave >= CHECKPOINT_MILLIS) {
+				synchronized (shards) {
+					save();
+					System.out.printf("Checkpoint: %d/%d shards%n", shardsDone(), shards.length);
+				}
+				lastSave = System.currentTimeMillis();
+			}
+		}
+		save();
+		ScoreStats total = new ScoreStats();
+		for (ScoreStats s : shards) {
+			total.merge(s);
+		}
+		return total;
+	}
+
+	/**
+	 * Usage: run &lt;checkpointFile&gt; &lt;games&gt; &lt;baseSeed&gt; &lt;FirstPlayer&gt; [&lt;SecondPlayer&gt;]
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if (args.length < 4 || args.length > 5) {
+			System.out.println("Usage: run <checkpointFile> <games> <baseSeed> <FirstPlayer> [<SecondPlayer>]");
+			return;
+		}
+		CheckpointedRun run = new CheckpointedRun(Path.of(args[0]), Integer.parseInt(args[1]), Long.parseLong(args[2]),
+				args[3], args[args.length - 1]);
+		if (run.shardsDone() > 0) {
+			System.out.printf("Resuming: %d/%d shards already done%n", run.shardsDone(), run.shards.length);
+		}
+		ExecutorService pool = GameBatch.newPool();
+		long start = System.nanoTime();
+		RunReport report = RunReport.begin("checkpointed", run.gamesLeft());
+		try {
+			ScoreStats total = run.run(pool, report);
+			report.finish();
+			System.out.println(total);
+			System.out.printf("%.1f s this session%n", (System.nanoTime() - start) / 1e9);
+			System.out.print(report.format());
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,77 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The binary layout of self-play datasets: one 64-byte little-endian record per ask() call, after a
+ * 64-byte file header. Fixed-width records mean record i starts at HEADER_BYTES + i * RECORD_BYTES,
+ * so readers can memory-map a file and index it directly (see DatasetReader).
+ *
+ * Header: magic (int), version (int), record size (int), reserved (int), record count (long), then zeros.
+ * Record fields, by byte offset:
+ * <pre>
+ *  0 int   game number (the game was dealt with seed baseSeed + game)
+ *  4 short turn within the game
+ *  6 byte  seat of the player asked, 0 or 1
+ *  7 byte  cards in the asked player's hand
+ *  8 byte  hints
+ *  9 byte  fuses
+ * 10 byte  cards left in the deck
+ * 11 byte  the game's final score
+ * 12 byte  tableau height per suit (5)
+ * 17 byte  partner's cards by CardKnowledge.bitOf(), EMPTY_CARD past the end of the hand (5)
+ * 22 byte  per own slot: bit 0 the slot has been hinted, bit 1 we color-hinted the partner's card
+ *          in that slot, bit 2 we number-hinted it (5)
+ * 27 byte  the action taken, as an ActionCodec code
+ * 28 byte  the draw index of a play or discard, 0xFF for a hint
+ * 29       reserved (3)
+ * 32 int   own card knowledge per slot, as CardKnowledge.optionMask() (5)
+ * 52       reserved (4)
+ * 56 long  copies of each card in the discard pile, 2 bits per CardKnowledge.bitOf()
+ * </pre>
+ */
+public class DatasetFormat {
+	public static final int MAGIC = 0x44424E48; // "HNBD" read as little-endian
+	public static final int VERSION = 1;
+	public static final int HEADER_BYTES = 64;
+	public static final int RECORD_BYTES = 64;
+	public static final int EMPTY_CARD = 31;
+
+	public static final int GAME = 0;
+	public static final int TURN = 4;
+	public static final int SEAT = 6;
+	public static final int HAND_SIZE = 7;
+	public static final int HINTS = 8;
+	public static final int FUSES = 9;
+	public static final int DECK = 10;
+	public static final int FINAL_SCORE = 11;
+	public static final int TABLEAU = 12;
+	public static final int PARTNER_CARDS = 17;
+	public static final int SLOT_FLAGS = 22;
+	public static final int ACTION = 27;
+	public static final int DRAW_INDEX = 28;
+	public static final int KNOWLEDGE = 32;
+	public static final int DISCARD_COUNTS = 56;
+
+	public static final int FLAG_HINTED = 1;
+	public static final int FLAG_COLOR_HINTED_PARTNER = 2;
+	public static final int FLAG_NUMBER_HINTED_PARTNER = 4;
+
+	public static ByteBuffer header(long recordCount) {
+		ByteBuffer b = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		b.putInt(MAGIC).putInt(VERSION).putInt(RECORD_BYTES).putInt(0).putLong(recordCount);
+		b.rewind();
+		return b;
+	}
+
+	/**
+	 * @param header A little-endian buffer positioned at the start of a file.
+	 * @return the record count the header declares
+	 * @throws IllegalArgumentException if the header is not one this version writes
+	 */
+	public static long checkHeader(ByteBuffer header) {
+		if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getInt(8) != RECORD_BYTES) {
+			throw new IllegalArgumentException("DatasetFormat.checkHeader() - not a version " + VERSION + " dataset");
+		}
+		return header.getLong(16);
+	}
+}
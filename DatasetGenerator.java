@@ -0,0 +1,160 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Plays seeded self-play games with RecordingPlayers across a thread pool and writes every ask() as a
+ * DatasetFormat record.
+ *
+ * Each worker fills its own buffer with whole games and appends it to the file in one write once it
+ * cannot hold another game, so the channel is touched once per few thousand records. Records of a
+ * game stay together, but games land in the file in whatever order workers finish them; the game
+ * number in each record says which deal it came from. Games that throw are left out.
+ */
+public class DatasetGenerator implements AutoCloseable {
+	private static final int BUFFER_RECORDS = 8192;
+
+	private final FileChannel channel;
+	private final ThreadLocal<RecordingPlayer.Recorder> recorders =
+			ThreadLocal.withInitial(() -> new RecordingPlayer.Recorder(BUFFER_RECORDS));
+	private long records;
+	private long errors;
+
+	public DatasetGenerator(Path file) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		writeFully(DatasetFormat.header(0), 0);
+	}
+
+	/**
+	 * Plays games from through to - 1 on the calling thread.
+	 */
+	public void play(long baseSeed, int from, int to) throws IOException {
+		RecordingPlayer.Recorder recorder = recorders.get();
+		int failed = 0;
+		for (int g = from; g < to; g++) {
+			if (!recorder.hasRoomForGame()) {
+				append(recorder);
+			}
+			recorder.startGame(g);
+			Hanabi game = new Hanabi(false, new RecordingPlayer(recorder, 0), new RecordingPlayer(recorder, 1),
+					GameBatch.seedFor(baseSeed, g));
+			try {
+				recorder.finishGame(game.play());
+			}
+			catch (Exception | AssertionError e) {
+				recorder.abandonGame();
+				failed++;
+			}
+		}
+		append(recorder);
+		synchronized (this) {
+			errors += failed;
+		}
+	}
+
+	private synchronized void append(RecordingPlayer.Recorder recorder) throws IOException {
+		int count = recorder.records();
+		writeFully(recorder.drain(), channel.size());
+		recorder.clear();
+		records += count;
+	}
+
+	private void writeFully(ByteBuffer b, long position) throws IOException {
+		while (b.hasRemaining()) {
+			position += channel.write(b, position);
+		}
+	}
+
+	public synchronized long getRecords() {
+		return records;
+	}
+
+	public synchronized long getErrors() {
+		return errors;
+	}
+
+	/**
+	 * Writes the final record count into the header and closes the file.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		writeFully(DatasetFormat.header(records), 0);
+		channel.close();
+	}
+
+	/**
+	 * Plays games 0 through numGames - 1 across the pool, in GameBatch.CHUNK_SIZE chunks.
+	 */
+	public void playAll(long baseSeed, int numGames, ExecutorService pool) throws IOException {
+		List<Future<Void>> chunks = new ArrayList<Future<Void>>();
+		for (int from = 0; from < numGames; from += GameBatch.CHUNK_SIZE) {
+			final int start = from;
+			final int end = Math.min(numGames, from + GameBatch.CHUNK_SIZE);
+			chunks.add(pool.submit(() -> {
+				play(baseSeed, start, end);
+				return null;
+			}));
+		}
+		for (Future<Void> chunk : chunks) {
+			try {
+				chunk.get();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("DatasetGenerator.playAll() - interrupted", e);
+			}
+			catch (ExecutionException e) {
+				if (e.getCause() instanceof IOException) {
+					throw (IOException) e.getCause();
+				}
+				throw new IllegalStateException("DatasetGenerator.playAll() - a chunk failed", e.getCause());
+			}
+		}
+	}
+
+	/**
+	 * Usage: dataset &lt;outputFile&gt; &lt;games&gt; &lt;baseSeed&gt; [&lt;threads&gt;]
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 3 || args.length > 4) {
+			System.out.println("Usage: dataset <outputFile> <games> <baseSeed> [<threads>]");
+			return;
+		}
+		Path file = Path.of(args[0]);
+		int games = Integer.parseInt(args[1]);
+		long seed = Long.parseLong(args[2]);
+		ExecutorService pool = (args.length > 3) ? GameBatch.newPool(Integer.parseInt(args[3])) : GameBatch.newPool();
+		long start = System.nanoTime();
+		long records;
+		long errors;
+		try (DatasetGenerator generator = new DatasetGenerator(file)) {
+			generator.playAll(seed, games, pool);
+			records = generator.getRecords();
+			errors = generator.getErrors();
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		pool.shutdown();
+		System.out.printf("%d records from %d games (%d errors) in %.1f s: %.2f million records/minute%n",
+				records, games - errors, errors, seconds, records / seconds * 60 / 1e6);
+
+		try (DatasetReader reader = new DatasetReader(file)) {
+			long[] byKind = new long[4];
+			long scoreTotal = 0;
+			for (long r = 0; r < reader.size(); r++) {
+				byKind[reader.action(r) / 5]++;
+				scoreTotal += reader.finalScore(r);
+			}
+			System.out.printf("Read back %d records: %d plays, %d discards, %d color hints, %d number hints; "
+					+ "mean final score per record %.3f%n", reader.size(), byKind[0], byKind[1], byKind[2], byKind[3],
+					reader.size() == 0 ? 0.0 : scoreTotal / (double) reader.size());
+		}
+	}
+}
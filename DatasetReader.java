@@ -0,0 +1,80 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Random access to a DatasetFormat file through memory mapping; nothing is copied onto the heap.
+ *
+ * A mapping is limited to 2 GB, so large files are mapped in SEGMENT_BYTES pieces. Records never
+ * straddle a piece, because SEGMENT_BYTES is a multiple of RECORD_BYTES.
+ */
+public class DatasetReader implements AutoCloseable {
+	private static final int SEGMENT_BITS = 30;
+	private static final long SEGMENT_BYTES = 1L << SEGMENT_BITS;
+
+	private final FileChannel channel;
+	private final MappedByteBuffer[] segments;
+	private final long records;
+
+	public DatasetReader(Path file) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.READ);
+		MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, DatasetFormat.HEADER_BYTES);
+		header.order(ByteOrder.LITTLE_ENDIAN);
+		records = DatasetFormat.checkHeader(header);
+		long bytes = records * DatasetFormat.RECORD_BYTES;
+		if (DatasetFormat.HEADER_BYTES + bytes > channel.size()) {
+			throw new IllegalArgumentException("DatasetReader - " + file + " is shorter than its header says");
+		}
+		segments = new MappedByteBuffer[(int) ((bytes + SEGMENT_BYTES - 1) >>> SEGMENT_BITS)];
+		for (int i = 0; i < segments.length; i++) {
+			long start = (long) i << SEGMENT_BITS;
+			segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, DatasetFormat.HEADER_BYTES + start,
+					Math.min(SEGMENT_BYTES, bytes - start));
+			segments[i].order(ByteOrder.LITTLE_ENDIAN);
+		}
+	}
+
+	public long size() {
+		return records;
+	}
+
+	public int getByte(long record, int field) {
+		long at = record * DatasetFormat.RECORD_BYTES;
+		return segments[(int) (at >>> SEGMENT_BITS)].get((int) (at & (SEGMENT_BYTES - 1)) + field) & 0xFF;
+	}
+
+	public int getShort(long record, int field) {
+		long at = record * DatasetFormat.RECORD_BYTES;
+		return segments[(int) (at >>> SEGMENT_BITS)].getShort((int) (at & (SEGMENT_BYTES - 1)) + field);
+	}
+
+	public int getInt(long record, int field) {
+		long at = record * DatasetFormat.RECORD_BYTES;
+		return segments[(int) (at >>> SEGMENT_BITS)].getInt((int) (at & (SEGMENT_BYTES - 1)) + field);
+	}
+
+	public long getLong(long record, int field) {
+		long at = record * DatasetFormat.RECORD_BYTES;
+		return segments[(int) (at >>> SEGMENT_BITS)].getLong((int) (at & (SEGMENT_BYTES - 1)) + field);
+	}
+
+	public int game(long record) {
+		return getInt(record, DatasetFormat.GAME);
+	}
+
+	public int action(long record) {
+		return getByte(record, DatasetFormat.ACTION);
+	}
+
+	public int finalScore(long record) {
+		return getByte(record, DatasetFormat.FINAL_SCORE);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
@@ -0,0 +1,185 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A range of seeded deals with their DealFeatures, sorted into strata by difficulty.
+ *
+ * The strata are a 3 x 3 grid: terciles of onesDepth by terciles of turnsToTen, with the cut points
+ * taken from the catalog itself. Each stratum keeps its seeds in seed order and its share of the
+ * catalog, which is what StratifiedEval needs to weight per-stratum means.
+ *
+ * Saved as text, one deal per line: seed onesDepth turnsToTen openingOnes lateFives.
+ */
+public class DealCatalog {
+	public static final int BINS = 3;
+	public static final int NUM_STRATA = BINS * BINS;
+
+	private final long[] seeds;
+	private final DealFeatures[] features;
+	private final int[] depthCuts;
+	private final int[] turnsCuts;
+	private final long[][] strata;
+
+	private DealCatalog(long[] seeds, DealFeatures[] features) {
+		if (seeds.length == 0) {
+			throw new IllegalArgumentException("DealCatalog - a catalog needs at least one deal");
+		}
+		this.seeds = seeds;
+		this.features = features;
+		int[] depths = new int[seeds.length];
+		int[] turns = new int[seeds.length];
+		for (int i = 0; i < seeds.length; i++) {
+			depths[i] = features[i].onesDepth;
+			turns[i] = features[i].turnsToTen;
+		}
+		depthCuts = terciles(depths);
+		turnsCuts = terciles(turns);
+
+		int[] counts = new int[NUM_STRATA];
+		for (DealFeatures f : features) {
+			counts[stratumOf(f)]++;
+		}
+		strata = new long[NUM_STRATA][];
+		for (int h = 0; h < NUM_STRATA; h++) {
+			strata[h] = new long[counts[h]];
+			counts[h] = 0;
+		}
+		for (int i = 0; i < seeds.length; i++) {
+			int h = stratumOf(features[i]);
+			strata[h][counts[h]++] = seeds[i];
+		}
+	}
+
+	/**
+	 * Computes the features of the deals seeded baseSeed through baseSeed + numDeals - 1.
+	 */
+	public static DealCatalog build(long baseSeed, int numDeals) {
+		long[] seeds = new long[numDeals];
+		DealFeatures[] features = new DealFeatures[numDeals];
+		for (int g = 0; g < numDeals; g++) {
+			seeds[g] = GameBatch.seedFor(baseSeed, g);
+			features[g] = DealFeatures.of(seeds[g]);
+		}
+		return new DealCatalog(seeds, features);
+	}
+
+	/**
+	 * @throws IllegalArgumentException if a line is malformed
+	 */
+	public static DealCatalog load(Path file) throws IOException {
+		List<String> lines = Files.readAllLines(file);
+		List<long[]> rows = new ArrayList<long[]>();
+		for (int n = 0; n < lines.size(); n++) {
+			String line = lines.get(n).replaceAll("#.*", "").trim();
+			if (line.isEmpty()) {
+				continue;
+			}
+			String[] words = line.split("\\s+");
+			if (words.length != 5) {
+				throw new IllegalArgumentException("DealCatalog.load() - line " + (n + 1) + ": expected five numbers");
+			}
+			long[] row = new long[5];
+			for (int i = 0; i < 5; i++) {
+				row[i] = Long.parseLong(words[i]);
+			}
+			rows.add(row);
+		}
+		long[] seeds = new long[rows.size()];
+		DealFeatures[] features = new DealFeatures[rows.size()];
+		for (int i = 0; i < seeds.length; i++) {
+			long[] row = rows.get(i);
+			seeds[i] = row[0];
+			features[i] = new DealFeatures((int) row[1], (int) row[2], (int) row[3], (int) row[4]);
+		}
+		return new DealCatalog(seeds, features);
+	}
+
+	public void save(Path file) throws IOException {
+		try (BufferedWriter out = Files.newBufferedWriter(file)) {
+			out.write("# seed onesDepth turnsToTen openingOnes lateFives\n");
+			for (int i = 0; i < seeds.length; i++) {
+				DealFeatures f = features[i];
+				out.write(seeds[i] + " " + f.onesDepth + " " + f.turnsToTen + " " + f.openingOnes + " " + f.lateFives + "\n");
+			}
+		}
+	}
+
+	public int size() {
+		return seeds.length;
+	}
+
+	/**
+	 * @return the stratum index, 0 to NUM_STRATA - 1: BINS * onesDepth tercile + turnsToTen tercile
+	 */
+	public int stratumOf(DealFeatures f) {
+		return BINS * bin(f.onesDepth, depthCuts) + bin(f.turnsToTen, turnsCuts);
+	}
+
+	/**
+	 * @return the seeds in stratum h, in catalog order
+	 */
+	public long[] seedsIn(int h) {
+		return strata[h].clone();
+	}
+
+	/**
+	 * @return the share of the catalog in stratum h
+	 */
+	public double weight(int h) {
+		return strata[h].length / (double) seeds.length;
+	}
+
+	/**
+	 * @return a label such as "onesDepth<61 turnsToTen>=9" for stratum h
+	 */
+	public String label(int h) {
+		return range("onesDepth", h / BINS, depthCuts) + " " + range("turnsToTen", h % BINS, turnsCuts);
+	}
+
+	private static String range(String name, int bin, int[] cuts) {
+		return switch (bin) {
+			case 0 -> name + "<" + cuts[0];
+			case 1 -> cuts[0] + "<=" + name + "<" + cuts[1];
+			default -> name + ">=" + cuts[1];
+		};
+	}
+
+	private static int bin(int x, int[] cuts) {
+		return (x < cuts[0]) ? 0 : (x < cuts[1]) ? 1 : 2;
+	}
+
+	private static int[] terciles(int[] values) {
+		int[] sorted = values.clone();
+		Arrays.sort(sorted);
+		return new int[] { sorted[sorted.length / BINS], sorted[2 * sorted.length / BINS] };
+	}
+
+	public String summary() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("%-44s %8s %8s%n", "stratum", "deals", "weight"));
+		for (int h = 0; h < NUM_STRATA; h++) {
+			sb.append(String.format("%-44s %8d %7.1f%%%n", h + ": " + label(h), strata[h].length, 100 * weight(h)));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Usage: catalog &lt;outputFile&gt; &lt;numDeals&gt; &lt;baseSeed&gt;
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 3) {
+			System.out.println("Usage: catalog <outputFile> <numDeals> <baseSeed>");
+			return;
+		}
+		long start = System.nanoTime();
+		DealCatalog catalog = build(Long.parseLong(args[2]), Integer.parseInt(args[1]));
+		catalog.save(Path.of(args[0]));
+		System.out.print(catalog.summary());
+		System.out.printf("%d deals in %.1f s%n", catalog.size(), (System.nanoTime() - start) / 1e9);
+	}
+}
@@ -0,0 +1,131 @@
+import java.util.List;
+
+/**
+ * Cheap difficulty features of a seeded deal, computed from the deal order alone without playing it.
+ *
+ * None of these depend on how the players play, so they can be computed once per seed and reused to
+ * stratify evaluations of any Player. See DealCatalog.
+ */
+public class DealFeatures {
+
+	/** Sum over colors of the deal position of that color's first 1; high when 1s are buried. */
+	public final int onesDepth;
+	/** Turns a full-information greedy team needs to put ten cards on the tableau, at most 50. */
+	public final int turnsToTen;
+	/** Distinct colors among the 1s in the opening hands. */
+	public final int openingOnes;
+	/** 5s among the last ten cards of the deck. */
+	public final int lateFives;
+
+	DealFeatures(int onesDepth, int turnsToTen, int openingOnes, int lateFives) {
+		this.onesDepth = onesDepth;
+		this.turnsToTen = turnsToTen;
+		this.openingOnes = openingOnes;
+		this.lateFives = lateFives;
+	}
+
+	public static DealFeatures of(long seed) {
+		return of(Hanabi.dealOrder(seed));
+	}
+
+	/**
+	 * @param deal All 50 cards in deal order, as from Hanabi.dealOrder().
+	 */
+	public static DealFeatures of(List<Card> deal) {
+		int[] firstOne = new int[5];
+		int openingColors = 0;
+		int lateFives = 0;
+		for (int i = deal.size() - 1; i >= 0; i--) {
+			Card c = deal.get(i);
+			if (c.value == Card.MIN_VALUE) {
+				firstOne[c.color] = i;
+				if (i < 2 * Hanabi.HAND_SIZE) {
+					openingColors |= 1 << c.color;
+				}
+			}
+			if (c.value == Card.MAX_VALUE && i >= deal.size() - 10) {
+				lateFives++;
+			}
+		}
+		int onesDepth = 0;
+		for (int p : firstOne) {
+			onesDepth += p;
+		}
+		return new DealFeatures(onesDepth, turnsToTen(deal), Integer.bitCount(openingColors), lateFives);
+	}
+
+	/**
+	 * Plays the deal as one player holding both opening hands and seeing every card: play the lowest
+	 * playable card if there is one, otherwise discard the least useful card (already played, then
+	 * duplicated in hand, then the highest value with another copy left) and draw.
+	 */
+	private static int turnsToTen(List<Card> deal) {
+		Card[] hand = new Card[2 * Hanabi.HAND_SIZE];
+		for (int i = 0; i < hand.length; i++) {
+			hand[i] = deal.get(i);
+		}
+		int next = hand.length;
+		int[] tableau = new int[5];
+		int[] gone = new int[Zobrist.NUM_CARDS]; // copies discarded, by CardKnowledge.bitOf()
+		int played = 0;
+		int turns = 0;
+		while (played < 10 && turns < deal.size()) {
+			turns++;
+			int pick = -1;
+			for (int i = 0; i < hand.length; i++) {
+				if (hand[i] != null && hand[i].value == tableau[hand[i].color] + 1
+						&& (pick < 0 || hand[i].value < hand[pick].value)) {
+					pick = i;
+				}
+			}
+			if (pick >= 0) {
+				tableau[hand[pick].color]++;
+				played++;
+			}
+			else {
+				pick = leastUseful(hand, tableau, gone);
+				gone[CardKnowledge.bitOf(hand[pick].color, hand[pick].value)]++;
+			}
+			hand[pick] = (next < deal.size()) ? deal.get(next++) : null;
+		}
+		return turns;
+	}
+
+	private static int leastUseful(Card[] hand, int[] tableau, int[] gone) {
+		int best = -1;
+		int bestRank = Integer.MIN_VALUE;
+		for (int i = 0; i < hand.length; i++) {
+			Card c = hand[i];
+			if (c == null) {
+				continue;
+			}
+			int rank;
+			if (c.value <= tableau[c.color]) {
+				rank = 3000;
+			}
+			else if (inHandTwice(hand, i)) {
+				rank = 2000;
+			}
+			else if (gone[CardKnowledge.bitOf(c.color, c.value)] < Card.copiesOf(c.value) - 1) {
+				rank = 1000 + c.value;
+			}
+			else {
+				rank = c.value - tableau[c.color]; // only critical cards left; give up the furthest off
+			}
+			if (rank > bestRank) {
+				best = i;
+				bestRank = rank;
+			}
+		}
+		return best;
+	}
+
+	private static boolean inHandTwice(Card[] hand, int i) {
+		for (int j = 0; j < hand.length; j++) {
+			if (j != i && hand[j] != null && hand[j].equals(hand[i])) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,194 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of Player.ask() decisions, shared by every Player using the same Strategy.
+ *
+ * The key is an exact packing of everything ask() reads (see Player.decisionKey()), not a hash of it,
+ * so a hit returns precisely what ask() would have computed. The value holds the action, the
+ * DecisionStats branch that chose it, and the hint flags ask() leaves behind.
+ *
+ * The cache is set-associative: a key's hash picks a set of WAYS entries, and a full set evicts with
+ * the CLOCK algorithm. Sets are guarded by striped locks so parallel games can share it. It is off
+ * unless the JVM is started with -Dhanabi.askCacheMB=N; -Dhanabi.askCacheVerify=true additionally
+ * recomputes every hit and fails loudly on any difference.
+ */
+public class DecisionCache {
+	public static final long CAPACITY_BYTES = Long.getLong("hanabi.askCacheMB", 0) << 20;
+	public static final boolean ENABLED = CAPACITY_BYTES > 0;
+	public static final boolean VERIFY = Boolean.getBoolean("hanabi.askCacheVerify");
+
+	public static final int KEY_LONGS = 4;
+	private static final int WAYS = 8;
+	private static final int LOCK_STRIPES = 64;
+	// key words, outcome int, action reference, reference bit
+	private static final int BYTES_PER_ENTRY = KEY_LONGS * 8 + 4 + 8 + 1;
+
+	private static final Map<Strategy, DecisionCache> caches = new ConcurrentHashMap<Strategy, DecisionCache>();
+
+	private final int setMask;
+	private final long[] keys;
+	private final String[] actions;		// null marks an empty entry
+	private final int[] outcomes;
+	private final boolean[] referenced;
+	private final byte[] clockHands;	// one per set
+	private final Object[] locks = new Object[LOCK_STRIPES];
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * Packs fields into the KEY_LONGS words of a key, low bits first.
+	 */
+	public static class KeyBuilder {
+		final long[] words = new long[KEY_LONGS];
+		private int bit;
+
+		public void reset() {
+			for (int i = 0; i < KEY_LONGS; i++) {
+				words[i] = 0;
+			}
+			bit = 0;
+		}
+
+		/**
+		 * @param value A non-negative value that fits in bits bits.
+		 */
+		public void put(long value, int bits) {
+			int word = bit >>> 6;
+			int offset = bit & 63;
+			words[word] |= value << offset;
+			if (offset + bits > 64) {
+				words[word + 1] |= value >>> (64 - offset);
+			}
+			bit += bits;
+			assert bit <= KEY_LONGS * 64;
+		}
+	}
+
+	/**
+	 * @param capacityBytes The memory the cache may use; at least one set is always kept.
+	 */
+	public DecisionCache(long capacityBytes) {
+		long entries = Math.max(WAYS, capacityBytes / BYTES_PER_ENTRY);
+		int sets = Integer.highestOneBit((int) Math.min(1 << 24, entries / WAYS));
+		setMask = sets - 1;
+		keys = new long[sets * WAYS * KEY_LONGS];
+		actions = new String[sets * WAYS];
+		outcomes = new int[sets * WAYS];
+		referenced = new boolean[sets * WAYS];
+		clockHands = new byte[sets];
+		for (int i = 0; i < LOCK_STRIPES; i++) {
+			locks[i] = new Object();
+		}
+	}
+
+	/**
+	 * @return the shared cache for strategy, created on first use with CAPACITY_BYTES
+	 */
+	public static DecisionCache forStrategy(Strategy strategy) {
+		return caches.computeIfAbsent(strategy, s -> new DecisionCache(CAPACITY_BYTES));
+	}
+
+	/**
+	 * @param outcome Receives the cached outcome in outcome[0] on a hit.
+	 * @return the cached action, or null on a miss
+	 */
+	public String get(KeyBuilder key, int[] outcome) {
+		long[] k = key.words;
+		int set = setOf(k);
+		synchronized (locks[set & (LOCK_STRIPES - 1)]) {
+			for (int e = set * WAYS; e < (set + 1) * WAYS; e++) {
+				if (actions[e] != null && keyMatches(e, k)) {
+					referenced[e] = true;
+					outcome[0] = outcomes[e];
+					hits.increment();
+					return actions[e];
+				}
+			}
+		}
+		misses.increment();
+		return null;
+	}
+
+	public void put(KeyBuilder key, String action, int outcome) {
+		long[] k = key.words;
+		int set = setOf(k);
+		synchronized (locks[set & (LOCK_STRIPES - 1)]) {
+			int first = set * WAYS;
+			int victim = -1;
+			for (int e = first; e < first + WAYS; e++) {
+				if (actions[e] == null) {
+					victim = e;
+					break;
+				}
+				if (keyMatches(e, k)) {
+					return; // another thread got here first
+				}
+			}
+			if (victim < 0) {
+				// CLOCK: sweep from the hand, giving referenced entries a second chance.
+				int hand = clockHands[set];
+				while (referenced[first + hand]) {
+					referenced[first + hand] = false;
+					hand = (hand + 1) % WAYS;
+				}
+				victim = first + hand;
+				clockHands[set] = (byte) ((hand + 1) % WAYS);
+				evictions.increment();
+			}
+			System.arraycopy(k, 0, keys, victim * KEY_LONGS, KEY_LONGS);
+			actions[victim] = action;
+			outcomes[victim] = outcome;
+			referenced[victim] = false;
+		}
+	}
+
+	private boolean keyMatches(int entry, long[] k) {
+		int base = entry * KEY_LONGS;
+		for (int i = 0; i < KEY_LONGS; i++) {
+			if (keys[base + i] != k[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int setOf(long[] k) {
+		long h = 0;
+		for (int i = 0; i < KEY_LONGS; i++) {
+			h = (h ^ k[i]) * 0x9E3779B97F4A7C15L;
+			h ^= h >>> 29;
+		}
+		return (int) (h >>> 32) & setMask;
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	public String report() {
+		long h = hits.sum();
+		long total = h + misses.sum();
+		return String.format("Decision cache: %d lookups, %.2f%% hits, %d evictions, %d entries (%.1f MB)%n",
+				total, (total == 0) ? 0.0 : 100.0 * h / total, evictions.sum(), actions.length,
+				actions.length * (double) BYTES_PER_ENTRY / (1 << 20));
+	}
+
+	/**
+	 * @return the report for every strategy's cache
+	 */
+	public static String reportAll() {
+		StringBuilder sb = new StringBuilder();
+		for (DecisionCache c : caches.values()) {
+			sb.append(c.report());
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,95 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hit counters for the branches of Player.ask(), with misplays attributed to the branch that chose them.
+ *
+ * Counting is off unless the JVM is started with -Dhanabi.decisionStats=true. The counters are
+ * striped LongAdders shared by every Player, so games running on several threads aggregate into
+ * the same totals.
+ */
+public class DecisionStats {
+	public static final boolean ENABLED = Boolean.getBoolean("hanabi.decisionStats");
+
+	public static final int NUM_TIERS = 5;			// one per lowest tableau value, 0-4
+	public static final int MAX_STEPS_PER_TIER = 8;	// rules tried in order within a tier
+
+	public static final int NO_HINTS = 0;
+	public static final int FALLTHROUGH = 1;
+	public static final int SEARCH = 2;				// SearchPlayer replaced the rule's action
+	private static final int FIRST_TIER_BRANCH = 3;
+	public static final int NUM_BRANCHES = FIRST_TIER_BRANCH + NUM_TIERS * MAX_STEPS_PER_TIER;
+
+	private static final LongAdder[] hits = newAdders();
+	private static final LongAdder[] misplays = newAdders();
+	private static final LongAdder[] fusesOut = newAdders();
+
+	private static LongAdder[] newAdders() {
+		LongAdder[] result = new LongAdder[NUM_BRANCHES];
+		for (int i = 0; i < NUM_BRANCHES; i++) {
+			result[i] = new LongAdder();
+		}
+		return result;
+	}
+
+	/**
+	 * @param tier The lowest value on the tableau when the rule ran (0-4).
+	 * @param step The position of the rule within that tier, starting at 0.
+	 * @return the branch id for that rule
+	 */
+	public static int branch(int tier, int step) {
+		return FIRST_TIER_BRANCH + tier * MAX_STEPS_PER_TIER + step;
+	}
+
+	public static String branchName(int branch) {
+		if (branch == NO_HINTS) { return "no hints left";}
+		if (branch == FALLTHROUGH) { return "fallthrough";}
+		if (branch == SEARCH) { return "search";}
+		int offset = branch - FIRST_TIER_BRANCH;
+		return "tier " + (offset / MAX_STEPS_PER_TIER) + " step " + (offset % MAX_STEPS_PER_TIER);
+	}
+
+	public static void hit(int branch) {
+		hits[branch].increment();
+	}
+
+	/**
+	 * Charges a misplay to the branch that chose the play.
+	 * @param branch The branch id that produced the PLAY action.
+	 * @param lostGame True if the misplay used up the last fuse.
+	 */
+	public static void misplay(int branch, boolean lostGame) {
+		misplays[branch].increment();
+		if (lostGame) {
+			fusesOut[branch].increment();
+		}
+	}
+
+	public static void reset() {
+		for (int i = 0; i < NUM_BRANCHES; i++) {
+			hits[i].reset();
+			misplays[i].reset();
+			fusesOut[i].reset();
+		}
+	}
+
+	/**
+	 * @return one line per branch that has fired, with its hit share, misplays, and games lost
+	 */
+	public static String report() {
+		long total = 0;
+		for (LongAdder a : hits) {
+			total += a.sum();
+		}
+		StringBuilder result = new StringBuilder();
+		result.append(String.format("%-16s %12s %7s %10s %9s%n", "Branch", "Hits", "Share", "Misplays", "Fuses out"));
+		for (int i = 0; i < NUM_BRANCHES; i++) {
+			long h = hits[i].sum();
+			if (h == 0) {
+				continue;
+			}
+			result.append(String.format("%-16s %12d %6.2f%% %10d %9d%n", branchName(i), h,
+					100.0 * h / total, misplays[i].sum(), fusesOut[i].sum()));
+		}
+		return result.toString();
+	}
+}
@@ -1,6 +1,44 @@
 
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
 public class Driver {
-	public static void main(String[] args) {
+	private static final boolean TIMING = Boolean.getBoolean("hanabi.timing");
+	private static final boolean JFR_EVENTS = Boolean.getBoolean("hanabi.jfr");
+	private static final String TRACE = System.getProperty("hanabi.trace"); // file name, or "-" for stdout
+	private static final long MOVE_BUDGET_NANOS = Long.getLong("hanabi.moveBudgetMicros", 0) * 1000;
+	private static final String RESULTS = System.getProperty("hanabi.results"); // ResultStore directory
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if (args.length > 0) {
+			String[] rest = Arrays.copyOfRange(args, 1, args.length);
+			switch (args[0]) {
+				case "tournament" -> Tournament.main(rest);
+				case "tune" -> ParamTuner.main(rest);
+				case "strategy" -> System.out.print(rest.length > 0 ? Strategy.fromParams(PlayerParams.parse(rest[0]))
+						: Strategy.getDefault());
+				case "serve" -> BotServer.main(rest);
+				case "daemon" -> SimDaemon.main(rest);
+				case "dataset" -> DatasetGenerator.main(rest);
+				case "policy" -> PolicyNetwork.main(rest);
+				case "scenario" -> ScenarioSuite.main(rest);
+				case "catalog" -> DealCatalog.main(rest);
+				case "stratified" -> StratifiedEval.main(rest);
+				case "query" -> ResultQuery.main(rest);
+				case "run" -> CheckpointedRun.main(rest);
+				case "coordinate" -> ShardCoordinator.main(rest);
+				case "worker" -> ShardWorker.main(rest);
+				case "soak" -> Soak.main(rest);
+				default -> System.out.println("Unknown mode " + args[0] + "; expected tournament, tune, strategy, serve, daemon, dataset, policy, scenario, catalog, stratified, query, run, coordinate, worker or soak");
+			}
+			return;
+		}
+
 		// TODO: Change from ConsolePlayer to Player after you have an implementation
 		// Hanabi game = new Hanabi(true, new ConsolePlayer(), new ConsolePlayer());
 //		Hanabi game = new Hanabi(true, new Player(), new Player());
@@ -8,10 +46,21 @@ public class Driver {
 
 		double average_score = simulateGames(1000,true);
 		System.out.println("The average score is: " + average_score);
+		if (DecisionStats.ENABLED) {
+			System.out.print(DecisionStats.report());
+		}
+		if (DecisionCache.ENABLED) {
+			System.out.print(DecisionCache.reportAll());
+		}
+		if (ErrorLog.ENABLED) {
+			System.out.print(ErrorLog.report());
+		}
 	}
 
 	/**
-	 * Used to evaluate your code
+	 * Used to evaluate your code. Game i is dealt with seed hanabi.seed + i (a random base if unset), and
+	 * with -Dhanabi.results=dir each game is also appended to that ResultStore. With -Dhanabi.errors=file,
+	 * a game that throws is recorded in the ErrorLog and left out of the average instead of ending the run.
 	 * @param numGames - number of games to run
 	 * @param verbose - if true, prints each game's score
 	 * @return average score
@@ -19,20 +68,57 @@ public class Driver {
 	public static double simulateGames(final int numGames, boolean verbose){
 		int total = 0;
 		int num0s = 0;
+		int failed = 0;
+		CallTimings timings = (TIMING || MOVE_BUDGET_NANOS > 0) ? new CallTimings() : null;
+		RingBufferLogger trace = (TRACE == null) ? null : openTrace(TRACE);
+		ResultStore.Appender results = (RESULTS == null) ? null : openResults(RESULTS);
+		long baseSeed = Long.getLong("hanabi.seed", new Random().nextLong());
+		RunReport report = RunReport.begin("simulateGames", numGames);
 		for (int i = 0; i < numGames; i++) {
-			Hanabi next = new Hanabi(false, new Player(), new Player());
+			long seed = GameBatch.seedFor(baseSeed, i);
+			Hanabi next = new Hanabi(false, new Player(), new Player(), seed);
+			next.setTimings(timings);
+			next.setMoveBudget(MOVE_BUDGET_NANOS);
+			if (JFR_EVENTS) {
+				next.addListener(new JfrGameListener());
+			}
+			if (trace != null) {
+				next.addListener(trace.newGame());
+			}
 			int score;
 
 			try {
 				score = next.play();
 			}
-			catch (Exception e) {
+			catch (Exception | AssertionError e) {
+				if (ErrorLog.ENABLED) {
+					ErrorLog.record(seed, next, e);
+					report.gameFinished();
+					failed++;
+					continue;
+				}
+				if (e instanceof AssertionError) {
+					throw (AssertionError) e;
+				}
 				System.out.println(e.toString());
 				if (verbose) {
 					System.out.println("Error; Score: 0");
 				}
+				closeTrace(trace);
+				closeResults(results);
+				report.finish();
 				return 0.0;
 			}
+			if (results != null) {
+				try {
+					results.append(seed, next, score);
+				}
+				catch (IOException e) {
+					System.out.println("Results incomplete: " + e);
+					closeResults(results);
+					results = null;
+				}
+			}
 			if (score == 0){
 				num0s++;
 			}
@@ -42,9 +128,72 @@ public class Driver {
 			}
 
 			total += score;
+			report.gameFinished();
 		}
+		closeResults(results);
+		report.finish();
 		System.out.println("Number of 0s: " + num0s);
-		return total/(double)numGames;
+		System.out.print(report.format());
+		if (timings != null) {
+			System.out.print(timings.report());
+		}
+		closeTrace(trace);
+		return (failed == numGames) ? 0.0 : total / (double) (numGames - failed);
+	}
+
+	private static RingBufferLogger openTrace(String name) {
+		try {
+			Writer out = name.equals("-") ? stdoutWriter() : Files.newBufferedWriter(Paths.get(name));
+			return new RingBufferLogger(out, 1 << 16);
+		}
+		catch (IOException e) {
+			throw new IllegalArgumentException("Driver - cannot open trace file " + name, e);
+		}
+	}
+
+	/**
+	 * @return a writer onto System.out whose close() only flushes, so closing the trace leaves stdout open
+	 */
+	private static Writer stdoutWriter() {
+		return new OutputStreamWriter(System.out) {
+			@Override
+			public void close() throws IOException {
+				flush();
+			}
+		};
+	}
+
+	private static ResultStore.Appender openResults(String dir) {
+		try {
+			return new ResultStore.Appender(Paths.get(dir));
+		}
+		catch (IOException e) {
+			throw new IllegalArgumentException("Driver - cannot open result store " + dir, e);
+		}
+	}
+
+	private static void closeResults(ResultStore.Appender results) {
+		if (results == null) {
+			return;
+		}
+		try {
+			results.close();
+		}
+		catch (IOException e) {
+			System.out.println("Results incomplete: " + e);
+		}
+	}
+
+	private static void closeTrace(RingBufferLogger trace) {
+		if (trace == null) {
+			return;
+		}
+		try {
+			trace.close();
+		}
+		catch (IOException e) {
+			System.out.println("Trace incomplete: " + e);
+		}
 	}
 
 }
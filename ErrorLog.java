@@ -0,0 +1,86 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Captures games that threw, so that one bad decision costs one game instead of the whole run.
+ *
+ * Capture is off unless the JVM is started with -Dhanabi.errors=file. Each failure is then counted
+ * by signature (exception class and the frame that threw), and the first hanabi.maxErrors of them
+ * (100 by default) are written to the file in full: seed, turn, seat, the action string being
+ * handled and the stack trace. Later failures are only counted, so a bug that hits every game
+ * cannot fill the disk or slow the run down. Safe to call from every game thread at once.
+ */
+public class ErrorLog {
+	public static final String FILE = System.getProperty("hanabi.errors");
+	public static final boolean ENABLED = FILE != null;
+	public static final int MAX_ENTRIES = Integer.getInteger("hanabi.maxErrors", 100);
+
+	private static final LongAdder failures = new LongAdder();
+	private static final Map<String, LongAdder> bySignature = new ConcurrentHashMap<String, LongAdder>();
+	private static final AtomicInteger logged = new AtomicInteger();
+	private static Writer out; // opened on the first failure; guarded by ErrorLog.class
+
+	/**
+	 * Records a game that threw out of play().
+	 * @param seed The seed the game was dealt with.
+	 */
+	public static void record(long seed, Hanabi game, Throwable t) {
+		failures.increment();
+		bySignature.computeIfAbsent(signature(t), k -> new LongAdder()).increment();
+		if (logged.getAndIncrement() >= MAX_ENTRIES) {
+			return;
+		}
+		StringWriter entry = new StringWriter();
+		PrintWriter pw = new PrintWriter(entry);
+		String action = game.getLastResponse();
+		pw.printf("seed %d turn %d seat %d action %s%n", seed, game.getTurns(), game.getCurrentPlayer(),
+				(action == null) ? "(during ask)" : "\"" + action + "\"");
+		t.printStackTrace(pw);
+		pw.println();
+		pw.flush();
+		write(entry.toString());
+	}
+
+	private static synchronized void write(String entry) {
+		try {
+			if (out == null) {
+				out = Files.newBufferedWriter(Paths.get(FILE));
+			}
+			out.write(entry);
+			out.flush();
+		}
+		catch (IOException e) {
+			System.out.println("ErrorLog - cannot write " + FILE + ": " + e);
+		}
+	}
+
+	private static String signature(Throwable t) {
+		StackTraceElement[] frames = t.getStackTrace();
+		return t.getClass().getName() + ((frames.length == 0) ? "" : " at " + frames[0]);
+	}
+
+	public static long getFailures() {
+		return failures.sum();
+	}
+
+	public static String report() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("Failed games: %d (%d written to %s)%n", failures.sum(), Math.min(logged.get(), MAX_ENTRIES), FILE));
+		List<Map.Entry<String, LongAdder>> entries = new ArrayList<Map.Entry<String, LongAdder>>(bySignature.entrySet());
+		entries.sort((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()));
+		for (Map.Entry<String, LongAdder> e : entries) {
+			sb.append(String.format("%10d  %s%n", e.getValue().sum(), e.getKey()));
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,149 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Plays numbered, seeded games, optionally spread across a thread pool.
+ *
+ * Game g of a batch is dealt with seed baseSeed + g, so two batches with the same base seed see the
+ * same deals whatever players they use. Results are merged in game order, so they do not depend on
+ * how many threads ran them.
+ */
+public class GameBatch {
+	public static final int CHUNK_SIZE = 250; // games per task handed to the pool
+
+	/**
+	 * @return a pool with one daemon thread per available processor
+	 */
+	public static ExecutorService newPool() {
+		return newPool(Runtime.getRuntime().availableProcessors());
+	}
+
+	public static ExecutorService newPool(int threads) {
+		return Executors.newFixedThreadPool(threads, r -> {
+			Thread t = new Thread(r, "hanabi-worker");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	public static long seedFor(long baseSeed, int game) {
+		return baseSeed + game;
+	}
+
+	public static ScoreStats play(Supplier<Player> first, Supplier<Player> second, long baseSeed, int from, int to) {
+		return play(first, second, baseSeed, from, to, null);
+	}
+
+	/**
+	 * Plays games from through to - 1 on the calling thread. A game that throws counts as an error.
+	 * @param first Builds the player who moves first.
+	 * @param second Builds the player who moves second.
+	 * @param report Counts each finished game, or null.
+	 */
+	public static ScoreStats play(Supplier<Player> first, Supplier<Player> second, long baseSeed, int from, int to,
+			RunReport report) {
+		ScoreStats stats = new ScoreStats();
+		for (int g = from; g < to; g++) {
+			playOne(first, second, seedFor(baseSeed, g), stats, report);
+		}
+		return stats;
+	}
+
+	/**
+	 * Plays the games dealt by seeds[from] through seeds[to - 1] on the calling thread.
+	 */
+	public static ScoreStats play(Supplier<Player> first, Supplier<Player> second, long[] seeds, int from, int to,
+			RunReport report) {
+		ScoreStats stats = new ScoreStats();
+		for (int g = from; g < to; g++) {
+			playOne(first, second, seeds[g], stats, report);
+		}
+		return stats;
+	}
+
+	private static void playOne(Supplier<Player> first, Supplier<Player> second, long seed, ScoreStats stats,
+			RunReport report) {
+		Hanabi game = new Hanabi(false, first.get(), second.get(), seed);
+		try {
+			stats.add(game.play());
+		}
+		catch (Exception | AssertionError e) {
+			stats.addError();
+			if (ErrorLog.ENABLED) {
+				ErrorLog.record(seed, game, e);
+			}
+		}
+		if (report != null) {
+			report.gameFinished();
+		}
+	}
+
+	/**
+	 * Queues games 0 through numGames - 1 on the pool in chunks, without waiting for them.
+	 * @return one future per chunk, in game order
+	 */
+	public static List<Future<ScoreStats>> submit(Supplier<Player> first, Supplier<Player> second, long baseSeed,
+			int numGames, ExecutorService pool) {
+		return submit(first, second, baseSeed, numGames, pool, null);
+	}
+
+	/**
+	 * As submit(), counting each finished game toward report.
+	 */
+	public static List<Future<ScoreStats>> submit(Supplier<Player> first, Supplier<Player> second, long baseSeed,
+			int numGames, ExecutorService pool, RunReport report) {
+		List<Future<ScoreStats>> chunks = new ArrayList<Future<ScoreStats>>();
+		for (int from = 0; from < numGames; from += CHUNK_SIZE) {
+			final int start = from;
+			final int end = Math.min(numGames, from + CHUNK_SIZE);
+			chunks.add(pool.submit(() -> play(first, second, baseSeed, start, end, report)));
+		}
+		return chunks;
+	}
+
+	/**
+	 * Queues the games dealt by each of seeds on the pool in chunks, without waiting for them.
+	 * @param report Counts each finished game, or null.
+	 * @return one future per chunk, in seed order
+	 */
+	public static List<Future<ScoreStats>> submit(Supplier<Player> first, Supplier<Player> second, long[] seeds,
+			ExecutorService pool, RunReport report) {
+		List<Future<ScoreStats>> chunks = new ArrayList<Future<ScoreStats>>();
+		for (int from = 0; from < seeds.length; from += CHUNK_SIZE) {
+			final int start = from;
+			final int end = Math.min(seeds.length, from + CHUNK_SIZE);
+			chunks.add(pool.submit(() -> play(first, second, seeds, start, end, report)));
+		}
+		return chunks;
+	}
+
+	/**
+	 * Waits for every chunk and merges them in order.
+	 */
+	public static ScoreStats collect(List<Future<ScoreStats>> chunks) {
+		ScoreStats total = new ScoreStats();
+		for (Future<ScoreStats> chunk : chunks) {
+			try {
+				total.merge(chunk.get());
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("GameBatch.collect() - interrupted", e);
+			}
+			catch (ExecutionException e) {
+				throw new IllegalStateException("GameBatch.collect() - a chunk failed", e.getCause());
+			}
+		}
+		return total;
+	}
+
+	public static ScoreStats play(Supplier<Player> first, Supplier<Player> second, long baseSeed, int numGames,
+			ExecutorService pool) {
+		return collect(submit(first, second, baseSeed, numGames, pool));
+	}
+}
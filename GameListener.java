@@ -0,0 +1,88 @@
+import java.util.ArrayList;
+
+/**
+ * Receives the events of one Hanabi game as they happen. Register with Hanabi.addListener().
+ *
+ * All methods do nothing by default, so a listener only overrides what it needs. Listeners run on
+ * the game's thread between player calls; anything slow belongs on another thread.
+ */
+public interface GameListener {
+
+	/**
+	 * Runs before the current player is asked for a move.
+	 * @param turn The turn number, starting at 0.
+	 * @param player The player about to move, 0 or 1.
+	 */
+	default void onTurnStart(int turn, int player, int numHints, int numFuses, int deckSize, int tableauScore) {}
+
+	/**
+	 * Runs after a successful play.
+	 * @param drew True if a replacement card was drawn.
+	 */
+	default void onPlay(int turn, int player, Card card, int index, boolean drew) {}
+
+	/**
+	 * Runs after an illegal play has cost a fuse.
+	 * @param fusesLeft The fuses remaining after the misplay.
+	 */
+	default void onMisplay(int turn, int player, Card card, int index, boolean drew, int fusesLeft) {}
+
+	default void onDiscard(int turn, int player, Card card, int index, boolean drew) {}
+
+	/**
+	 * @param isColor True for a color hint, false for a number hint.
+	 * @param hinted The color or number hinted.
+	 * @param indices The indices in the partner's hand that the hint touched.
+	 */
+	default void onHint(int turn, int player, boolean isColor, int hinted, ArrayList<Integer> indices) {}
+
+	/**
+	 * @param score The score play() returns; 0 if the fuses ran out.
+	 * @param turns The number of turns taken.
+	 * @param outOfFuses True if the game ended on the last fuse.
+	 */
+	default void onGameEnd(int score, int turns, boolean outOfFuses) {}
+
+	/**
+	 * @return a listener that forwards every event to first and then to second
+	 */
+	static GameListener both(GameListener first, GameListener second) {
+		return new GameListener() {
+			@Override
+			public void onTurnStart(int turn, int player, int numHints, int numFuses, int deckSize, int tableauScore) {
+				first.onTurnStart(turn, player, numHints, numFuses, deckSize, tableauScore);
+				second.onTurnStart(turn, player, numHints, numFuses, deckSize, tableauScore);
+			}
+
+			@Override
+			public void onPlay(int turn, int player, Card card, int index, boolean drew) {
+				first.onPlay(turn, player, card, index, drew);
+				second.onPlay(turn, player, card, index, drew);
+			}
+
+			@Override
+			public void onMisplay(int turn, int player, Card card, int index, boolean drew, int fusesLeft) {
+				first.onMisplay(turn, player, card, index, drew, fusesLeft);
+				second.onMisplay(turn, player, card, index, drew, fusesLeft);
+			}
+
+			@Override
+			public void onDiscard(int turn, int player, Card card, int index, boolean drew) {
+				first.onDiscard(turn, player, card, index, drew);
+				second.onDiscard(turn, player, card, index, drew);
+			}
+
+			@Override
+			public void onHint(int turn, int player, boolean isColor, int hinted, ArrayList<Integer> indices) {
+				first.onHint(turn, player, isColor, hinted, indices);
+				second.onHint(turn, player, isColor, hinted, indices);
+			}
+
+			@Override
+			public void onGameEnd(int score, int turns, boolean outOfFuses) {
+				first.onGameEnd(score, turns, outOfFuses);
+				second.onGameEnd(score, turns, outOfFuses);
+			}
+		};
+	}
+}
@@ -1,24 +1,58 @@
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Random;
 import java.util.Scanner;
 
 public class Hanabi {
     public static final int HAND_SIZE = 5;
 
+	// Why a game ended, as returned by getEndReason().
+	public static final int END_NONE = 0;		// still in progress
+	public static final int END_FUSES = 1;
+	public static final int END_DECK = 2;
+	public static final int END_PERFECT = 3;
+
 	private Board boardState;
 	private ArrayList<Player> players;
 	private ArrayList<Hand> hands;
 	private ArrayList<Card> deck;
+	private Random rand;
 
 	private int currentPlayer;
 	private int otherPlayer;
 	private boolean chatty;
 
+	private CallTimings timings;	// null unless timing was requested
+	private long moveBudgetNanos;	// 0 for no per-move deadline
+	private GameListener listener;	// null unless someone is listening
+	private int turn;
+
+	private int[] discardCounts = new int[Zobrist.NUM_CARDS];	// copies of each card in boardState.discards
+	private long stateHash;		// Zobrist hash, updated as moves are made
+	private int startFuses;
+	private int hintsWasted;	// hints not regained because the players already had MAX_HINTS
+	private int endReason = END_NONE;
+	private String lastResponse;	// the action being handled; null while the player is being asked
+
 	/**
 	 * The basic constructor.
 	 * @param chatty True to print out all useful information about the game; false for speed of play.
 	 */
 	public Hanabi(boolean chatty, Player player1, Player player2) {
+		this(chatty, player1, player2, new Random());
+	}
+
+	/**
+	 * Deals a reproducible game: the same seed always gives the same deck order.
+	 * @param chatty True to print out all useful information about the game; false for speed of play.
+	 * @param seed The seed for the shuffle.
+	 */
+	public Hanabi(boolean chatty, Player player1, Player player2, long seed) {
+		this(chatty, player1, player2, new Random(seed));
+	}
+
+	private Hanabi(boolean chatty, Player player1, Player player2, Random rand) {
+		this.rand = rand;
 		boardState = new Board();
 
 		players = new ArrayList<Player>();
@@ -32,22 +66,7 @@ public class Hanabi {
 		currentPlayer = 0;
 		otherPlayer = 1;
 
-		deck = new ArrayList<Card>();
-
-		// Loads deck with three of each 1, two of each 2-3-4, and one of each 5.
-		for (int i = 0; i < 5; i++) {
-			deck.add(new Card(i, 1));
-			deck.add(new Card(i, 1));
-			deck.add(new Card(i, 1));
-			deck.add(new Card(i, 2));
-			deck.add(new Card(i, 2));
-			deck.add(new Card(i, 3));
-			deck.add(new Card(i, 3));
-			deck.add(new Card(i, 4));
-			deck.add(new Card(i, 4));
-			deck.add(new Card(i, 5));
-		}
-
+		deck = newDeck();
 		shuffle();
 
 		// Deals five cards to both players.
@@ -69,6 +88,86 @@ public class Hanabi {
 		otherPlayer = 1;
 
 		this.chatty = chatty;
+		startFuses = boardState.numFuses;
+		stateHash = computeStateHash();
+	}
+
+	/**
+	 * Starts a game from a described mid-game position instead of a fresh deal, and primes both
+	 * players' knowledge to match it (see Player.primeKnowledge()). The players must be new.
+	 * @param chatty True to print out all useful information about the game; false for speed of play.
+	 * @param seed The seed for shuffling the unseen cards into the deck, when the scenario does not list the deck.
+	 */
+	public Hanabi(boolean chatty, Player player1, Player player2, Scenario scenario, long seed) {
+		this.rand = new Random(seed);
+		this.chatty = chatty;
+		boardState = new Board();
+		boardState.numHints = scenario.numHints;
+		boardState.numFuses = scenario.numFuses;
+		for (int c = 0; c < 5; c++) {
+			boardState.tableau.set(c, scenario.tableau(c));
+		}
+		for (Card d : scenario.getDiscards()) {
+			boardState.discard(d);
+			discardCounts[Zobrist.cardIndex(d)]++;
+		}
+
+		players = new ArrayList<Player>();
+		players.add(player1);
+		players.add(player2);
+
+		hands = new ArrayList<Hand>();
+		hands.add(scenario.getHand(0));
+		hands.add(scenario.getHand(1));
+
+		deck = new ArrayList<Card>();
+		if (scenario.getDeck() != null) {
+			// dealCard() takes from the end, so store the draw order reversed.
+			for (Card c : scenario.getDeck()) {
+				deck.add(0, c);
+			}
+		}
+		else {
+			deck.addAll(scenario.unseenCards());
+			shuffle();
+			if (scenario.getDeckSize() >= 0) {
+				deck.subList(0, deck.size() - scenario.getDeckSize()).clear();
+			}
+		}
+		boardState.deckSize = deck.size();
+		startFuses = boardState.numFuses;
+
+		currentPlayer = scenario.toMove;
+		otherPlayer = 1 - scenario.toMove;
+		stateHash = computeStateHash();
+
+		for (int p = 0; p < 2; p++) {
+			players.get(p).primeKnowledge(new Board(boardState), scenario.getClueColors(p), scenario.getClueValues(p),
+					scenario.getClueColors(1 - p), scenario.getClueValues(1 - p), scenario.getHintFlags(p));
+		}
+	}
+
+	/**
+	 * Records the latency of every Player call made by this game.
+	 * @param timings Where to record; may be shared between games. Null turns timing off.
+	 */
+	public void setTimings(CallTimings timings) {
+		this.timings = timings;
+	}
+
+	/**
+	 * Registers a listener for this game's events. Listeners added later hear each event after earlier ones.
+	 */
+	public void addListener(GameListener l) {
+		listener = (listener == null) ? l : GameListener.both(listener, l);
+	}
+
+	/**
+	 * Gives each player a deadline for every ask() call, via Player.setMoveDeadline().
+	 * @param nanos The time allowed per move in nanoseconds; 0 for no deadline.
+	 */
+	public void setMoveBudget(long nanos) {
+		this.moveBudgetNanos = nanos;
 	}
 
 	/**
@@ -85,22 +184,54 @@ public class Hanabi {
 
 		while (true) {
 
-			String response = players.get(currentPlayer).ask(hands.get(currentPlayer).size(),
-					new Hand(hands.get(otherPlayer)), new Board(boardState)); // pass copies to avoid malicious editing
+			if (listener != null) {
+				listener.onTurnStart(turn, currentPlayer, boardState.numHints, boardState.numFuses,
+						boardState.deckSize, boardState.getTableauScore());
+			}
+			Player asked = players.get(currentPlayer);
+			Hand partnerHand = new Hand(hands.get(otherPlayer)); // pass copies to avoid malicious editing
+			Board board = new Board(boardState);
+			long start = 0;
+			if (moveBudgetNanos > 0) {
+				start = System.nanoTime();
+				asked.setMoveDeadline(start + moveBudgetNanos);
+			}
+			else if (timings != null) {
+				start = System.nanoTime();
+			}
+			lastResponse = null;
+			String response = asked.ask(hands.get(currentPlayer).size(), partnerHand, board);
+			lastResponse = response;
+			if (timings != null) {
+				long elapsed = System.nanoTime() - start;
+				timings.record(CallTimings.ASK, elapsed);
+				if (moveBudgetNanos > 0 && elapsed > moveBudgetNanos) {
+					timings.missedDeadline();
+				}
+			}
 			parseAndHandleResponse(response);
 			if (gameEnded()) {
+				endReason = (boardState.numFuses <= 0) ? END_FUSES
+						: (boardState.getTableauScore() == 25) ? END_PERFECT : END_DECK;
 				if (boardState.numFuses <= 0) {
 					if (chatty) {
 						System.out.println("Ran out of fuses; Score: 0");
 					}
+					if (listener != null) {
+						listener.onGameEnd(0, turn + 1, true);
+					}
 					return 0;
 				}
 				if (chatty) {
 					System.out.println("Game ended; Score: " + boardState.getTableauScore());
 				}
+				if (listener != null) {
+					listener.onGameEnd(boardState.getTableauScore(), turn + 1, false);
+				}
 				return boardState.getTableauScore();
 			}
 			switchPlayers();
+			turn++;
 
 		}
 
@@ -110,13 +241,50 @@ public class Hanabi {
 	 * Shuffle the deck using the Fisher-Yates shuffling algorithm.
 	 */
 	public void shuffle() {
-		Random rand = new Random();
-		for (int i = deck.size() - 1; i >= 1; i--) {
+		shuffle(deck, rand);
+	}
+
+	private static void shuffle(ArrayList<Card> cards, Random rand) {
+		for (int i = cards.size() - 1; i >= 1; i--) {
 			int j = rand.nextInt(i + 1);
-			Card temp = deck.get(j);
-			deck.set(j, deck.get(i));
-			deck.set(i, temp);
+			Card temp = cards.get(j);
+			cards.set(j, cards.get(i));
+			cards.set(i, temp);
+		}
+	}
+
+	/**
+	 * @return an unshuffled deck: three of each 1, two of each 2-3-4, and one of each 5
+	 */
+	private static ArrayList<Card> newDeck() {
+		ArrayList<Card> cards = new ArrayList<Card>();
+		for (int i = 0; i < 5; i++) {
+			cards.add(new Card(i, 1));
+			cards.add(new Card(i, 1));
+			cards.add(new Card(i, 1));
+			cards.add(new Card(i, 2));
+			cards.add(new Card(i, 2));
+			cards.add(new Card(i, 3));
+			cards.add(new Card(i, 3));
+			cards.add(new Card(i, 4));
+			cards.add(new Card(i, 4));
+			cards.add(new Card(i, 5));
 		}
+		return cards;
+	}
+
+	/**
+	 * The deal a seeded game gets, without making the game. Cards 0-9 are the opening deal, alternating
+	 * between the players starting with player 0 (each card dealt goes to the front of the hand), and
+	 * the rest come off the deck in order.
+	 * @param seed The seed given to Hanabi(boolean, Player, Player, long).
+	 * @return all 50 cards in the order they are dealt
+	 */
+	public static ArrayList<Card> dealOrder(long seed) {
+		ArrayList<Card> cards = newDeck();
+		shuffle(cards, new Random(seed));
+		Collections.reverse(cards); // dealCard() takes from the end
+		return cards;
 	}
 
 	/**
@@ -160,14 +328,30 @@ public class Hanabi {
                 }
                 // No errors.
                 Hand oldHand = new Hand(hands.get(currentPlayer));
+                stateHash ^= moveHash(oldHand.get(playIndex));
                 Card play = hands.get(currentPlayer).remove(playIndex);
+                boolean atMaxHints = boardState.numHints >= boardState.MAX_HINTS;
                 boolean legalPlay = boardState.play(play);
+                if (legalPlay && play.value == Card.MAX_VALUE && atMaxHints) {
+                    hintsWasted++;
+                }
+                if (!legalPlay) {
+                    discardCounts[Zobrist.cardIndex(play)]++;
+                }
                 Card draw = null;
                 if (!deck.isEmpty()) {
                     draw = dealCard();
                     hands.get(currentPlayer).add(drawIndex, draw);
                 }
+                stateHash ^= moveHash(play);
                 Hand newHand = new Hand(hands.get(currentPlayer));
+                if (listener != null) {
+                    if (legalPlay) {
+                        listener.onPlay(turn, currentPlayer, play, playIndex, draw != null);
+                    } else {
+                        listener.onMisplay(turn, currentPlayer, play, playIndex, draw != null, boardState.numFuses);
+                    }
+                }
                 if (chatty) {
                     System.out.print("Player " + currentPlayer + " plays " + play + " from position "
                             + playIndex);
@@ -183,10 +367,15 @@ public class Hanabi {
                     System.out.println("Player 1 hand: " + hands.get(1));
                     System.out.println("Board state: \n" + boardState);
                 }
+                Board partnerBoard = new Board(boardState);
+                Board yourBoard = new Board(boardState);
+                long start = startTiming();
                 players.get(otherPlayer).tellPartnerPlay(oldHand, play, playIndex, draw, drawIndex, newHand,
-                        legalPlay, new Board(boardState));
+                        legalPlay, partnerBoard);
+                start = stopTiming(CallTimings.TELL_PARTNER_PLAY, start);
                 players.get(currentPlayer).tellYourPlay(play, playIndex, drawIndex, draw != null,
-                        legalPlay, new Board(boardState));
+                        legalPlay, yourBoard);
+                stopTiming(CallTimings.TELL_YOUR_PLAY, start);
 
             }
             case "DISCARD" -> {
@@ -216,17 +405,26 @@ public class Hanabi {
                 }
                 // No errors.
                 Hand oldHand = new Hand(hands.get(currentPlayer));
+                stateHash ^= moveHash(oldHand.get(discardIndex));
                 Card discard = hands.get(currentPlayer).remove(discardIndex);
                 boardState.discard(discard);
+                discardCounts[Zobrist.cardIndex(discard)]++;
                 if (boardState.numHints < boardState.MAX_HINTS) {
                     boardState.numHints++;
                 }
+                else {
+                    hintsWasted++;
+                }
                 Card draw = null;
                 if (!deck.isEmpty()) {
                     draw = dealCard();
                     hands.get(currentPlayer).add(drawIndex, draw);
                 }
+                stateHash ^= moveHash(discard);
                 Hand newHand = new Hand(hands.get(currentPlayer));
+                if (listener != null) {
+                    listener.onDiscard(turn, currentPlayer, discard, discardIndex, draw != null);
+                }
                 if (chatty) {
                     System.out.print("Player " + currentPlayer + " discards " + discard + " from position "
                             + discardIndex);
@@ -239,9 +437,14 @@ public class Hanabi {
                     System.out.println("Player 1 hand: " + hands.get(1));
                     System.out.println("Board state: \n" + boardState);
                 }
+                Board partnerBoard = new Board(boardState);
+                Board yourBoard = new Board(boardState);
+                long start = startTiming();
                 players.get(otherPlayer).tellPartnerDiscard(oldHand, discard, discardIndex, draw, drawIndex, newHand,
-                        new Board(boardState));
-                players.get(currentPlayer).tellYourDiscard(discard, discardIndex, drawIndex, draw != null, new Board(boardState));
+                        partnerBoard);
+                start = stopTiming(CallTimings.TELL_PARTNER_DISCARD, start);
+                players.get(currentPlayer).tellYourDiscard(discard, discardIndex, drawIndex, draw != null, yourBoard);
+                stopTiming(CallTimings.TELL_YOUR_DISCARD, start);
             }
             case "NUMBERHINT" -> {
                 // Error if out of hints.
@@ -268,6 +471,9 @@ public class Hanabi {
                             " not in other player's hand.");
                 }
                 // No errors. Tell other player.
+                if (listener != null) {
+                    listener.onHint(turn, currentPlayer, false, number, indices);
+                }
                 if (chatty) {
                     System.out.println("Player " + currentPlayer + " hints the number " + number + " for indices "
                             + indices);
@@ -276,8 +482,13 @@ public class Hanabi {
                     System.out.println("Board state: \n" + boardState);
                 }
                 // And decrement hints.
+                stateHash ^= Zobrist.hints(boardState.numHints) ^ Zobrist.hints(boardState.numHints - 1);
                 boardState.numHints--;
-                players.get(otherPlayer).tellNumberHint(number, indices, new Hand(hands.get(currentPlayer)), new Board(boardState));
+                Hand hinterHand = new Hand(hands.get(currentPlayer));
+                Board hintBoard = new Board(boardState);
+                long start = startTiming();
+                players.get(otherPlayer).tellNumberHint(number, indices, hinterHand, hintBoard);
+                stopTiming(CallTimings.TELL_NUMBER_HINT, start);
 
             }
             case "COLORHINT" -> {
@@ -312,6 +523,9 @@ public class Hanabi {
                             " not in other player's hand.");
                 }
                 // No errors. Tell other player.
+                if (listener != null) {
+                    listener.onHint(turn, currentPlayer, true, color, indices);
+                }
                 if (chatty) {
                     System.out.println("Player " + currentPlayer + " hints the color " + Colors.suitColor(color) +
                             " for indices " + indices);
@@ -320,8 +534,13 @@ public class Hanabi {
                     System.out.println("Board state: \n" + boardState);
                 }
                 // And decrement hints.
+                stateHash ^= Zobrist.hints(boardState.numHints) ^ Zobrist.hints(boardState.numHints - 1);
                 boardState.numHints--;
-                players.get(otherPlayer).tellColorHint(color, indices, new Hand(hands.get(currentPlayer)), new Board(boardState));
+                Hand hinterHand = new Hand(hands.get(currentPlayer));
+                Board hintBoard = new Board(boardState);
+                long start = startTiming();
+                players.get(otherPlayer).tellColorHint(color, indices, hinterHand, hintBoard);
+                stopTiming(CallTimings.TELL_COLOR_HINT, start);
 
             }
 
@@ -332,6 +551,27 @@ public class Hanabi {
             }
         }
 		scn.close();
+		assert stateHash == computeStateHash();
+	}
+
+	/**
+	 * @return the current time if this game is being timed; 0 otherwise
+	 */
+	private long startTiming() {
+		return (timings == null) ? 0 : System.nanoTime();
+	}
+
+	/**
+	 * Records the time since start against a Player call, if this game is being timed.
+	 * @return the current time, so back-to-back calls can chain; 0 if not timing
+	 */
+	private long stopTiming(int call, long start) {
+		if (timings == null) {
+			return 0;
+		}
+		long now = System.nanoTime();
+		timings.record(call, now - start);
+		return now;
 	}
 
 	/**
@@ -341,6 +581,104 @@ public class Hanabi {
 		int temp = currentPlayer;
 		currentPlayer = otherPlayer;
 		otherPlayer = temp;
+		stateHash ^= Zobrist.toMove(currentPlayer) ^ Zobrist.toMove(otherPlayer);
+	}
+
+	/**
+	 * @return moves made so far, including the last one once the game has ended
+	 */
+	public int getTurns() {
+		return (endReason == END_NONE) ? turn : turn + 1;
+	}
+
+	/**
+	 * @return fuses lost so far in this game
+	 */
+	public int getFusesUsed() {
+		return startFuses - boardState.numFuses;
+	}
+
+	/**
+	 * @return discards made, and 5s played, while the players already held MAX_HINTS, so that the hint
+	 *         they would have regained was lost
+	 */
+	public int getHintsWasted() {
+		return hintsWasted;
+	}
+
+	/**
+	 * @return the seat whose move is being made
+	 */
+	public int getCurrentPlayer() {
+		return currentPlayer;
+	}
+
+	/**
+	 * @return the last action string returned by ask(); null if the current ask() has not returned
+	 */
+	public String getLastResponse() {
+		return lastResponse;
+	}
+
+	/**
+	 * @return END_FUSES, END_DECK or END_PERFECT once play() has returned normally; END_NONE before that
+	 */
+	public int getEndReason() {
+		return endReason;
+	}
+
+	/**
+	 * @return the Zobrist hash of the current state, kept up to date in O(1) per move
+	 */
+	public long getStateHash() {
+		return stateHash;
+	}
+
+	/**
+	 * Hashes the current state from scratch; getStateHash() should always agree with it.
+	 */
+	public long computeStateHash() {
+		long h = Zobrist.hints(boardState.numHints) ^ Zobrist.fuses(boardState.numFuses)
+				^ Zobrist.deck(boardState.deckSize) ^ Zobrist.toMove(currentPlayer);
+		for (int c = 0; c < 5; c++) {
+			h ^= Zobrist.tableau(c, boardState.tableau.get(c));
+		}
+		for (int i = 0; i < Zobrist.NUM_CARDS; i++) {
+			h ^= Zobrist.discards(i, discardCounts[i]);
+		}
+		return h ^ handHash(0) ^ handHash(1);
+	}
+
+	/**
+	 * @return the canonical 128-bit encoding of the current state
+	 */
+	public PackedState encodeState() {
+		int[] tableau = new int[5];
+		for (int c = 0; c < 5; c++) {
+			tableau[c] = boardState.tableau.get(c);
+		}
+		return PackedState.encode(tableau, boardState.numHints, boardState.numFuses, boardState.deckSize,
+				currentPlayer, discardCounts, new Hand[] { hands.get(0), hands.get(1) });
+	}
+
+	private long handHash(int player) {
+		Hand h = hands.get(player);
+		long result = 0;
+		for (int slot = 0; slot < h.size(); slot++) {
+			result ^= Zobrist.handSlot(player, slot, h.get(slot));
+		}
+		return result;
+	}
+
+	/**
+	 * The hash of every feature that the current player playing or discarding c can change.
+	 * XOR it in before and after the move to update stateHash.
+	 */
+	private long moveHash(Card c) {
+		int index = Zobrist.cardIndex(c);
+		return Zobrist.hints(boardState.numHints) ^ Zobrist.fuses(boardState.numFuses)
+				^ Zobrist.deck(boardState.deckSize) ^ Zobrist.tableau(c.color, boardState.tableau.get(c.color))
+				^ Zobrist.discards(index, discardCounts[index]) ^ handHash(currentPlayer);
 	}
 
 	/**
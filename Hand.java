@@ -20,6 +20,27 @@ public class Hand {
 		}
 	}
 
+	/**
+	 * The color of the card at index, without the copy get() makes.
+	 */
+	public int colorAt(int index) {
+		return cardAt(index).color;
+	}
+
+	/**
+	 * The value of the card at index, without the copy get() makes.
+	 */
+	public int valueAt(int index) {
+		return cardAt(index).value;
+	}
+
+	private Card cardAt(int index) {
+		if ((index >= 0) && (index < cards.size())) {
+			return cards.get(index);
+		}
+		throw new IllegalArgumentException("Hand.cardAt() - index " + index + " out of bounds for hand size " + cards.size());
+	}
+
 	public int countMatches(Card c) {
 		int result = 0;
 		for (Card otherCard : cards) {
@@ -64,17 +85,17 @@ public class Hand {
 			return cards.get(0).toString() + " and " + cards.get(1).toString();
 		}
 		else {
-			String result = "";
+			StringBuilder result = new StringBuilder();
 			for (int i = 0; i < cards.size(); i++) {
-				result += cards.get(i).toString();
+				result.append(cards.get(i));
 				if (i < cards.size() - 1) {
-					result += ", ";
+					result.append(", ");
 				}
 				if (i == cards.size() - 2) {
-					result += "and ";
+					result.append("and ");
 				}
 			}
-			return result;
+			return result.toString();
 		}
 	}
 	
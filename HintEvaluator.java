@@ -0,0 +1,157 @@
+/**
+ * Everything Player's hint rules ask about the partner's hand, worked out for all ten hints at once.
+ *
+ * load() packs the partner's hand as 5-bit card codes (CardKnowledge.bitOf() order, as in
+ * PackedState) and builds, from static tables, the slots each hint would touch and which slots hold
+ * immediately playable, critical (last copy not yet discarded) and 5 cards. After that the rules'
+ * questions are table lookups on slot masks: whether a hint leaves an important card as the
+ * partner's next discard is WALK[discardIndex][touched] plus one bit test.
+ *
+ * Hints are numbered 0-9, colors first, in ActionCodec order: COLORHINT c is c and NUMBERHINT v is
+ * 5 + v - 1. Slot masks have bit i for slot i.
+ */
+public class HintEvaluator {
+	private static final int NUM_COLORS = Colors.MAX_COLOR + 1;
+	public static final int NUM_HINTS = 2 * NUM_COLORS;
+
+	private static final int[] TOUCHES = new int[Zobrist.NUM_CARDS];	// hints that touch each card
+	private static final int[][] WALK = new int[Hanabi.HAND_SIZE][1 << Hanabi.HAND_SIZE];
+	private static final String[] ACTIONS = new String[NUM_HINTS];
+
+	static {
+		for (int code = 0; code < Zobrist.NUM_CARDS; code++) {
+			TOUCHES[code] = (1 << (code / Card.MAX_VALUE)) | (1 << valueHint(code % Card.MAX_VALUE + Card.MIN_VALUE));
+		}
+		// The partner's next discard after a hint: the first slot leftward from the old one that the hint does not touch.
+		for (int discard = 0; discard < Hanabi.HAND_SIZE; discard++) {
+			for (int touched = 0; touched < (1 << Hanabi.HAND_SIZE); touched++) {
+				int next = discard;
+				while (next >= 0 && (touched & (1 << next)) != 0) {
+					next--;
+				}
+				WALK[discard][touched] = next;
+			}
+		}
+		for (int hint = 0; hint < NUM_HINTS; hint++) {
+			ACTIONS[hint] = ActionCodec.decode(ActionCodec.COLORHINT + hint);
+		}
+	}
+
+	private int hand;	// 5 bits per slot
+	private int size;
+	private final int[] slots = new int[NUM_HINTS];
+	private int playable;
+	private int critical;
+	private int fives;
+
+	public static int colorHint(int color) {
+		return color;
+	}
+
+	public static int valueHint(int value) {
+		return NUM_COLORS + value - Card.MIN_VALUE;
+	}
+
+	/**
+	 * @return the action string for hint, built once
+	 */
+	public static String action(int hint) {
+		return ACTIONS[hint];
+	}
+
+	/**
+	 * Rebuilds every table for a new decision.
+	 */
+	public void load(Hand partnerHand, Board boardState) {
+		int playableCards = 0;
+		for (int c = 0; c < NUM_COLORS; c++) {
+			int next = boardState.tableau.get(c) + 1;
+			if (next <= Card.MAX_VALUE) {
+				playableCards |= 1 << CardKnowledge.bitOf(c, next);
+			}
+		}
+		long discardCounts = boardState.packedDiscards();
+
+		hand = 0;
+		size = partnerHand.size();
+		playable = 0;
+		critical = 0;
+		fives = 0;
+		for (int h = 0; h < NUM_HINTS; h++) {
+			slots[h] = 0;
+		}
+		for (int i = 0; i < size; i++) {
+			int value = partnerHand.valueAt(i);
+			int code = CardKnowledge.bitOf(partnerHand.colorAt(i), value);
+			hand |= code << (5 * i);
+			int touches = TOUCHES[code];
+			while (touches != 0) {
+				slots[Integer.numberOfTrailingZeros(touches)] |= 1 << i;
+				touches &= touches - 1;
+			}
+			if ((playableCards & (1 << code)) != 0) {
+				playable |= 1 << i;
+			}
+			if ((int) (discardCounts >>> (2 * code) & 3) + 1 == Card.copiesOf(value)) {
+				critical |= 1 << i;
+			}
+			if (value == Card.MAX_VALUE) {
+				fives |= 1 << i;
+			}
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int color(int slot) {
+		return (hand >>> (5 * slot) & 0x1F) / Card.MAX_VALUE;
+	}
+
+	public int value(int slot) {
+		return (hand >>> (5 * slot) & 0x1F) % Card.MAX_VALUE + Card.MIN_VALUE;
+	}
+
+	/**
+	 * @return the slots hint would touch
+	 */
+	public int slots(int hint) {
+		return slots[hint];
+	}
+
+	/**
+	 * @return the slots holding a card that can be played right now
+	 */
+	public int playable() {
+		return playable;
+	}
+
+	/**
+	 * @return the slots holding the last undiscarded copy of their card; 5s only if careAboutFives
+	 */
+	public int important(boolean careAboutFives) {
+		return careAboutFives ? critical : critical & ~fives;
+	}
+
+	/**
+	 * @return whether, after a hint touching the given slots, the partner's next discard is not an important card
+	 */
+	public boolean keepsSafe(int touched, int discardIndex, boolean careAboutFives) {
+		int next = WALK[discardIndex][touched];
+		return next < 0 || (important(careAboutFives) & (1 << next)) == 0;
+	}
+
+	/**
+	 * @return the hints, one bit each, that keep the partner's next discard safe; see keepsSafe()
+	 */
+	public int safeHints(int discardIndex, boolean careAboutFives) {
+		int safe = 0;
+		for (int h = 0; h < NUM_HINTS; h++) {
+			if (keepsSafe(slots[h], discardIndex, careAboutFives)) {
+				safe |= 1 << h;
+			}
+		}
+		return safe;
+	}
+}
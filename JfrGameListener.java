@@ -0,0 +1,174 @@
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Emits Java Flight Recorder events for a game, so long runs can be analyzed with JFR tooling.
+ *
+ * Use one instance per game. Start the JVM with -XX:StartFlightRecording to record; when no recording
+ * has the hanabi events enabled, each event costs one shouldCommit() check.
+ */
+public class JfrGameListener implements GameListener {
+	private static final AtomicLong nextGameId = new AtomicLong();
+
+	private final long gameId = nextGameId.getAndIncrement();
+	private TurnEvent turnEvent;
+
+	@Name("hanabi.Turn")
+	@Label("Turn")
+	@Category("Hanabi")
+	@Description("One player's turn, from being asked to the next turn starting")
+	static class TurnEvent extends Event {
+		@Label("Game") long gameId;
+		@Label("Turn") int turn;
+		@Label("Player") int player;
+		@Label("Hints") int numHints;
+		@Label("Fuses") int numFuses;
+		@Label("Deck Size") int deckSize;
+		@Label("Tableau Score") int tableauScore;
+	}
+
+	@Name("hanabi.Play")
+	@Label("Play")
+	@Category("Hanabi")
+	static class PlayEvent extends Event {
+		@Label("Game") long gameId;
+		@Label("Turn") int turn;
+		@Label("Player") int player;
+		@Label("Color") int color;
+		@Label("Value") int value;
+		@Label("Index") int index;
+		@Label("Legal") boolean legal;
+		@Label("Fuses Left") int fusesLeft;
+	}
+
+	@Name("hanabi.Discard")
+	@Label("Discard")
+	@Category("Hanabi")
+	static class DiscardEvent extends Event {
+		@Label("Game") long gameId;
+		@Label("Turn") int turn;
+		@Label("Player") int player;
+		@Label("Color") int color;
+		@Label("Value") int value;
+		@Label("Index") int index;
+	}
+
+	@Name("hanabi.Hint")
+	@Label("Hint")
+	@Category("Hanabi")
+	static class HintEvent extends Event {
+		@Label("Game") long gameId;
+		@Label("Turn") int turn;
+		@Label("Player") int player;
+		@Label("Color Hint") boolean isColor;
+		@Label("Hinted") int hinted;
+		@Label("Cards Touched") int touched;
+	}
+
+	@Name("hanabi.GameEnd")
+	@Label("Game End")
+	@Category("Hanabi")
+	static class GameEndEvent extends Event {
+		@Label("Game") long gameId;
+		@Label("Score") int score;
+		@Label("Turns") int turns;
+		@Label("Out Of Fuses") boolean outOfFuses;
+	}
+
+	@Override
+	public void onTurnStart(int turn, int player, int numHints, int numFuses, int deckSize, int tableauScore) {
+		endTurn();
+		TurnEvent e = new TurnEvent();
+		if (!e.isEnabled()) {
+			return;
+		}
+		e.gameId = gameId;
+		e.turn = turn;
+		e.player = player;
+		e.numHints = numHints;
+		e.numFuses = numFuses;
+		e.deckSize = deckSize;
+		e.tableauScore = tableauScore;
+		e.begin();
+		turnEvent = e;
+	}
+
+	@Override
+	public void onPlay(int turn, int player, Card card, int index, boolean drew) {
+		commitPlay(turn, player, card, index, true, -1);
+	}
+
+	@Override
+	public void onMisplay(int turn, int player, Card card, int index, boolean drew, int fusesLeft) {
+		commitPlay(turn, player, card, index, false, fusesLeft);
+	}
+
+	private void commitPlay(int turn, int player, Card card, int index, boolean legal, int fusesLeft) {
+		PlayEvent e = new PlayEvent();
+		if (e.shouldCommit()) {
+			e.gameId = gameId;
+			e.turn = turn;
+			e.player = player;
+			e.color = card.color;
+			e.value = card.value;
+			e.index = index;
+			e.legal = legal;
+			e.fusesLeft = fusesLeft;
+			e.commit();
+		}
+	}
+
+	@Override
+	public void onDiscard(int turn, int player, Card card, int index, boolean drew) {
+		DiscardEvent e = new DiscardEvent();
+		if (e.shouldCommit()) {
+			e.gameId = gameId;
+			e.turn = turn;
+			e.player = player;
+			e.color = card.color;
+			e.value = card.value;
+			e.index = index;
+			e.commit();
+		}
+	}
+
+	@Override
+	public void onHint(int turn, int player, boolean isColor, int hinted, ArrayList<Integer> indices) {
+		HintEvent e = new HintEvent();
+		if (e.shouldCommit()) {
+			e.gameId = gameId;
+			e.turn = turn;
+			e.player = player;
+			e.isColor = isColor;
+			e.hinted = hinted;
+			e.touched = indices.size();
+			e.commit();
+		}
+	}
+
+	@Override
+	public void onGameEnd(int score, int turns, boolean outOfFuses) {
+		endTurn();
+		GameEndEvent e = new GameEndEvent();
+		if (e.shouldCommit()) {
+			e.gameId = gameId;
+			e.score = score;
+			e.turns = turns;
+			e.outOfFuses = outOfFuses;
+			e.commit();
+		}
+	}
+
+	private void endTurn() {
+		if (turnEvent != null) {
+			turnEvent.commit();
+			turnEvent = null;
+		}
+	}
+}
@@ -0,0 +1,93 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A log-linear latency histogram in the style of HdrHistogram.
+ *
+ * Values below 64 are counted exactly; above that each power of two is split into 32 buckets, so any
+ * recorded value is reported to within about 3%. Recording is a few bit operations and one atomic
+ * increment, so one histogram can be shared by games running on several threads.
+ */
+public class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;		// buckets per power of two
+	private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;			// values below this are exact
+	private static final int NUM_BUCKETS = LINEAR_LIMIT + (64 - SUB_BUCKET_BITS - 1) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(NUM_BUCKETS);
+	private final AtomicLong totalCount = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Records one value.
+	 * @param value The value to record; negative values are counted as 0.
+	 */
+	public void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		counts.incrementAndGet(bucketOf(value));
+		totalCount.incrementAndGet();
+		max.accumulateAndGet(value, Math::max);
+	}
+
+	public long getCount() {
+		return totalCount.get();
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * @param percentile The percentile wanted, from 0 to 100.
+	 * @return the highest value that falls in the same bucket as the requested percentile; 0 if empty
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long total = totalCount.get();
+		if (total == 0) {
+			return 0;
+		}
+		long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+		long seen = 0;
+		for (int i = 0; i < NUM_BUCKETS; i++) {
+			seen += counts.get(i);
+			if (seen >= target) {
+				return Math.min(highestValueIn(i), max.get());
+			}
+		}
+		return max.get();
+	}
+
+	/**
+	 * Adds every value recorded in other to this histogram.
+	 */
+	public void add(LatencyHistogram other) {
+		for (int i = 0; i < NUM_BUCKETS; i++) {
+			long c = other.counts.get(i);
+			if (c != 0) {
+				counts.addAndGet(i, c);
+			}
+		}
+		totalCount.addAndGet(other.totalCount.get());
+		max.accumulateAndGet(other.max.get(), Math::max);
+	}
+
+	private static int bucketOf(long value) {
+		if (value < LINEAR_LIMIT) {
+			return (int) value;
+		}
+		// Keep the top SUB_BUCKET_BITS + 1 bits of the value; the shift picks the power of two.
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+	}
+
+	private static long highestValueIn(int bucket) {
+		if (bucket < LINEAR_LIMIT) {
+			return bucket;
+		}
+		int shift = (bucket - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+		long sub = (bucket - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+		return ((sub + 1) << shift) - 1;
+	}
+}
@@ -0,0 +1,82 @@
+import java.util.ArrayList;
+
+/**
+ * Text encodings shared by the tools that talk to players outside this JVM.
+ *
+ * Cards are written as a color letter and a value ("R1", "W5"), lists of cards or indices are
+ * comma-separated ("-" when empty), and actions use the same PLAY/DISCARD/NUMBERHINT/COLORHINT
+ * strings that Player.ask() returns and ConsolePlayer reads.
+ */
+public class LineProtocol {
+	private static final String COLOR_LETTERS = "RYBGW";
+
+	public static String card(Card c) {
+		return (c == null) ? "-" : "" + COLOR_LETTERS.charAt(c.color) + c.value;
+	}
+
+	/**
+	 * @throws IllegalArgumentException if text is not a card written by card()
+	 */
+	public static Card parseCard(String text) {
+		int color = (text.length() == 2) ? COLOR_LETTERS.indexOf(text.charAt(0)) : -1;
+		int value = (text.length() == 2) ? text.charAt(1) - '0' : -1;
+		if (color < 0 || value < Card.MIN_VALUE || value > Card.MAX_VALUE) {
+			throw new IllegalArgumentException("LineProtocol.parseCard() - bad card " + text);
+		}
+		return new Card(color, value);
+	}
+
+	public static String hand(Hand h) {
+		if (h.size() == 0) {
+			return "-";
+		}
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < h.size(); i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append(card(h.get(i)));
+		}
+		return sb.toString();
+	}
+
+	public static String indices(ArrayList<Integer> indices) {
+		if (indices.isEmpty()) {
+			return "-";
+		}
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < indices.size(); i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append(indices.get(i));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * @return the board as "hints=H fuses=F deck=D tableau=r,y,b,g,w discards=cards"
+	 */
+	public static String board(Board b) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("hints=").append(b.numHints).append(" fuses=").append(b.numFuses).append(" deck=").append(b.deckSize);
+		sb.append(" tableau=");
+		for (int c = 0; c < b.tableau.size(); c++) {
+			if (c > 0) {
+				sb.append(',');
+			}
+			sb.append(b.tableau.get(c));
+		}
+		sb.append(" discards=");
+		if (b.discards.isEmpty()) {
+			sb.append('-');
+		}
+		for (int i = 0; i < b.discards.size(); i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append(card(b.discards.get(i)));
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,81 @@
+import java.nio.file.Path;
+
+/**
+ * A Player whose moves come from a learned policy network rather than hand-written rules.
+ *
+ * Each turn it encodes what it sees with ObservationEncoder, scores every action with the shared
+ * BatchedPolicy, and takes the highest-scoring legal action. Card knowledge is kept up to date by
+ * the inherited tell...() methods. The weights file comes from -Dhanabi.policy=path, so
+ * PlayerFactory and the tournament tools can construct it by class name.
+ */
+public class NeuralPlayer extends Player {
+	private static final String POLICY = System.getProperty("hanabi.policy");
+
+	private final BatchedPolicy policy;
+	private final BatchedPolicy.Request request;
+	private final CardKnowledge[] knowledge = new CardKnowledge[Hanabi.HAND_SIZE];
+
+	/**
+	 * @throws IllegalStateException if -Dhanabi.policy is not set
+	 */
+	public NeuralPlayer() {
+		this(BatchedPolicy.forFile(Path.of(requirePolicy())));
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the network does not fit ObservationEncoder and ActionCodec
+	 */
+	public NeuralPlayer(BatchedPolicy policy) {
+		PolicyNetwork net = policy.getNetwork();
+		if (net.inputSize() != ObservationEncoder.SIZE || net.outputSize() != ActionCodec.NUM_ACTIONS) {
+			throw new IllegalArgumentException("NeuralPlayer - network is " + net.inputSize() + " -> " + net.outputSize()
+					+ ", expected " + ObservationEncoder.SIZE + " -> " + ActionCodec.NUM_ACTIONS);
+		}
+		this.policy = policy;
+		this.request = new BatchedPolicy.Request(net);
+	}
+
+	private static String requirePolicy() {
+		if (POLICY == null) {
+			throw new IllegalStateException("NeuralPlayer - set -Dhanabi.policy to a weights file");
+		}
+		return POLICY;
+	}
+
+	@Override
+	public String ask(int yourHandSize, Hand partnerHand, Board boardState) {
+		for (int i = 0; i < Hanabi.HAND_SIZE; i++) {
+			knowledge[i] = getOurKnowledge(i);
+		}
+		ObservationEncoder.encode(yourHandSize, partnerHand, boardState, knowledge, request.features, 0);
+		policy.evaluate(request);
+
+		int best = -1;
+		for (int code = 0; code < ActionCodec.NUM_ACTIONS; code++) {
+			if (isLegal(code, yourHandSize, partnerHand, boardState)
+					&& (best < 0 || request.scores[code] > request.scores[best])) {
+				best = code;
+			}
+		}
+		String action = ActionCodec.decode(best);
+		markHinted(action, partnerHand);
+		notePartnerHint(action, partnerHand);
+		return action;
+	}
+
+	private static boolean isLegal(int code, int yourHandSize, Hand partnerHand, Board boardState) {
+		if (code < ActionCodec.COLORHINT) {
+			return code % Hanabi.HAND_SIZE < yourHandSize;
+		}
+		if (boardState.numHints == 0) {
+			return false;
+		}
+		for (int i = 0; i < partnerHand.size(); i++) {
+			if (code < ActionCodec.NUMBERHINT ? partnerHand.colorAt(i) == code - ActionCodec.COLORHINT
+					: partnerHand.valueAt(i) == code - ActionCodec.NUMBERHINT + Card.MIN_VALUE) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
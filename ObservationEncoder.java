@@ -0,0 +1,107 @@
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * Turns what a player sees at ask() time into a fixed-length vector of floats, for learned players.
+ *
+ * encode() writes straight into the caller's array or buffer and allocates nothing, so it can run
+ * every turn of every game. The layout below is VERSION 1; any change to it must bump VERSION so
+ * that models trained on the old layout are rejected instead of silently misread.
+ * <pre>
+ * PARTNER_CARDS  125  one-hot identity of each partner card, 25 per slot (zeros past the hand)
+ * KNOWLEDGE      125  1 for each identity our card could still be, 25 per slot (zeros past the hand)
+ * HINTED           5  1 if our card in that slot has been hinted
+ * TABLEAU         30  one-hot height 0-5 of each suit
+ * HINTS            9  one-hot hints left, 0-8
+ * FUSES            4  one-hot fuses left, 0-3
+ * DECK             1  cards left in the deck / 50
+ * HAND_SIZE        1  cards in our hand / 5
+ * DISCARDS        25  discarded copies of each identity / copies in the deck
+ * </pre>
+ * Card identities are ordered by CardKnowledge.bitOf().
+ */
+public class ObservationEncoder {
+	public static final int VERSION = 1;
+
+	private static final int CARDS = Zobrist.NUM_CARDS;
+	public static final int PARTNER_CARDS = 0;
+	public static final int KNOWLEDGE = PARTNER_CARDS + Hanabi.HAND_SIZE * CARDS;
+	public static final int HINTED = KNOWLEDGE + Hanabi.HAND_SIZE * CARDS;
+	public static final int TABLEAU = HINTED + Hanabi.HAND_SIZE;
+	public static final int HINTS = TABLEAU + 5 * (Card.MAX_VALUE + 1);
+	public static final int FUSES = HINTS + 9;
+	public static final int DECK = FUSES + 4;
+	public static final int HAND_SIZE = DECK + 1;
+	public static final int DISCARDS = HAND_SIZE + 1;
+	public static final int SIZE = DISCARDS + CARDS;
+
+	private static final float[] ONE_OVER_COPIES = new float[CARDS];
+	private static final ThreadLocal<float[]> scratch = ThreadLocal.withInitial(() -> new float[SIZE]);
+
+	static {
+		for (int i = 0; i < CARDS; i++) {
+			int value = i % Card.MAX_VALUE + Card.MIN_VALUE;
+			ONE_OVER_COPIES[i] = 1.0f / Card.copiesOf(value);
+		}
+	}
+
+	/**
+	 * Writes SIZE floats starting at out[offset].
+	 * @param knowledge What the asked player knows about each card in their hand, in slot order.
+	 */
+	public static void encode(int handSize, Hand partnerHand, Board board, CardKnowledge[] knowledge,
+			float[] out, int offset) {
+		Arrays.fill(out, offset, offset + SIZE, 0.0f);
+		for (int slot = 0; slot < partnerHand.size(); slot++) {
+			int card = CardKnowledge.bitOf(partnerHand.colorAt(slot), partnerHand.valueAt(slot));
+			out[offset + PARTNER_CARDS + slot * CARDS + card] = 1.0f;
+		}
+		for (int slot = 0; slot < handSize; slot++) {
+			int mask = knowledge[slot].optionMask();
+			int base = offset + KNOWLEDGE + slot * CARDS;
+			for (int card = 0; card < CARDS; card++) {
+				out[base + card] = (mask >>> card) & 1;
+			}
+			if (knowledge[slot].hasBeenHinted) {
+				out[offset + HINTED + slot] = 1.0f;
+			}
+		}
+		for (int color = 0; color < 5; color++) {
+			out[offset + TABLEAU + color * (Card.MAX_VALUE + 1) + board.tableau.get(color)] = 1.0f;
+		}
+		out[offset + HINTS + board.numHints] = 1.0f;
+		out[offset + FUSES + Math.max(0, board.numFuses)] = 1.0f;
+		out[offset + DECK] = board.deckSize / 50.0f;
+		out[offset + HAND_SIZE] = handSize / (float) Hanabi.HAND_SIZE;
+		for (int i = 0; i < board.discards.size(); i++) {
+			Card c = board.discards.get(i);
+			int card = CardKnowledge.bitOf(c.color, c.value);
+			out[offset + DISCARDS + card] += ONE_OVER_COPIES[card];
+		}
+	}
+
+	/**
+	 * Writes SIZE floats at out's position and advances it past them.
+	 */
+	public static void encode(int handSize, Hand partnerHand, Board board, CardKnowledge[] knowledge, FloatBuffer out) {
+		if (out.hasArray()) {
+			encode(handSize, partnerHand, board, knowledge, out.array(), out.arrayOffset() + out.position());
+			out.position(out.position() + SIZE);
+		}
+		else {
+			float[] features = scratch.get();
+			encode(handSize, partnerHand, board, knowledge, features, 0);
+			out.put(features, 0, SIZE);
+		}
+	}
+
+	/**
+	 * @throws IllegalArgumentException if a model was trained on another layout
+	 */
+	public static void checkVersion(int modelVersion) {
+		if (modelVersion != VERSION) {
+			throw new IllegalArgumentException("ObservationEncoder.checkVersion() - model expects layout version "
+					+ modelVersion + ", encoder writes " + VERSION);
+		}
+	}
+}
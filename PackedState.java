@@ -0,0 +1,111 @@
+/**
+ * A complete Hanabi game state (everything except the order of the undealt deck) packed into 128 bits.
+ *
+ * Layout of lo, from bit 0: tableau height per suit (5 x 3 bits), hints (4), fuses (2), deck size (6),
+ * then the player to move (1) and the first 36 bits of the discard counts. hi holds the remaining 14
+ * discard bits and both hands. Discard counts take 2 bits per card identity (CardKnowledge.bitOf()
+ * order); hand slots take 5 bits each, player 0's five slots then player 1's, with EMPTY_SLOT for a
+ * missing card. Two states are equal exactly when their encodings are.
+ */
+public class PackedState {
+	public static final int EMPTY_SLOT = 31;
+
+	private static final int DISCARD_SHIFT = 28;
+	private static final int DISCARD_BITS_IN_LO = 64 - DISCARD_SHIFT;
+	private static final int HANDS_SHIFT = 50 - DISCARD_BITS_IN_LO;
+
+	public final long hi;
+	public final long lo;
+
+	public PackedState(long hi, long lo) {
+		this.hi = hi;
+		this.lo = lo;
+	}
+
+	/**
+	 * @param tableau The height of each suit.
+	 * @param discardCounts Copies of each card identity in the discard pile, in CardKnowledge.bitOf() order.
+	 * @param hands Both hands; a null card or a short hand packs as EMPTY_SLOT.
+	 */
+	public static PackedState encode(int[] tableau, int numHints, int numFuses, int deckSize, int toMove,
+			int[] discardCounts, Hand[] hands) {
+		long lo = 0;
+		for (int c = 0; c < 5; c++) {
+			lo |= (long) tableau[c] << (3 * c);
+		}
+		lo |= (long) numHints << 15;
+		lo |= (long) Math.max(0, numFuses) << 19;
+		lo |= (long) deckSize << 21;
+		lo |= (long) toMove << 27;
+		long discards = 0;
+		for (int i = 0; i < Zobrist.NUM_CARDS; i++) {
+			discards |= (long) discardCounts[i] << (2 * i);
+		}
+		lo |= discards << DISCARD_SHIFT;
+		long hi = discards >>> DISCARD_BITS_IN_LO;
+		int shift = HANDS_SHIFT;
+		for (Hand h : hands) {
+			for (int slot = 0; slot < Hanabi.HAND_SIZE; slot++) {
+				long code = (slot < h.size()) ? Zobrist.cardIndex(h.get(slot)) : EMPTY_SLOT;
+				hi |= code << shift;
+				shift += 5;
+			}
+		}
+		return new PackedState(hi, lo);
+	}
+
+	public int tableau(int color) {
+		return (int) (lo >>> (3 * color)) & 7;
+	}
+
+	public int numHints() {
+		return (int) (lo >>> 15) & 0xF;
+	}
+
+	public int numFuses() {
+		return (int) (lo >>> 19) & 3;
+	}
+
+	public int deckSize() {
+		return (int) (lo >>> 21) & 0x3F;
+	}
+
+	public int toMove() {
+		return (int) (lo >>> 27) & 1;
+	}
+
+	public int discardCount(int cardIndex) {
+		long discards = (lo >>> DISCARD_SHIFT) | (hi << DISCARD_BITS_IN_LO);
+		return (int) (discards >>> (2 * cardIndex)) & 3;
+	}
+
+	/**
+	 * @return the card in a hand slot, or null for an empty slot
+	 */
+	public Card card(int player, int slot) {
+		int code = (int) (hi >>> (HANDS_SHIFT + 5 * (player * Hanabi.HAND_SIZE + slot))) & 0x1F;
+		if (code == EMPTY_SLOT) {
+			return null;
+		}
+		return new Card(code / Card.MAX_VALUE, code % Card.MAX_VALUE + Card.MIN_VALUE);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof PackedState)) {
+			return false;
+		}
+		PackedState p = (PackedState) o;
+		return hi == p.hi && lo == p.lo;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(hi * 31 + lo);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%016x%016x", hi, lo);
+	}
+}
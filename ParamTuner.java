@@ -0,0 +1,149 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Searches PlayerParams for a stronger Player using successive halving.
+ *
+ * Each generation mutates the best parameters found so far into a population of candidates. All
+ * candidates play the same seeded deals in parallel; after each round the worse half is dropped
+ * and the survivors play twice as many games, reusing the games they have already played. The last
+ * survivor becomes the new incumbent. Each generation uses fresh deals so the search does not
+ * overfit one set of shuffles. A game that throws scores 0, so a mutation cannot win by crashing
+ * on its hard deals; run without -ea, since Player's asserts fail in most games.
+ */
+public class ParamTuner {
+	private final ExecutorService pool;
+	private final Random rng;
+
+	private static class Candidate {
+		final PlayerParams params;
+		final ScoreStats stats = new ScoreStats();
+
+		Candidate(PlayerParams params) {
+			this.params = params;
+		}
+	}
+
+	public ParamTuner(ExecutorService pool, long rngSeed) {
+		this.pool = pool;
+		this.rng = new Random(rngSeed);
+	}
+
+	/**
+	 * @param start The parameters to improve on.
+	 * @param generations How many populations to race.
+	 * @param populationSize Candidates per generation, including the incumbent.
+	 * @param firstRoundGames Games each candidate plays in the first round.
+	 * @param baseSeed Deals for generation k start at baseSeed + k * 2^32.
+	 * @return the best parameters found
+	 */
+	public PlayerParams tune(PlayerParams start, int generations, int populationSize, int firstRoundGames, long baseSeed) {
+		PlayerParams incumbent = start;
+		for (int gen = 0; gen < generations; gen++) {
+			Set<PlayerParams> population = new LinkedHashSet<PlayerParams>();
+			population.add(incumbent);
+			for (int tries = 0; population.size() < populationSize && tries < populationSize * 20; tries++) {
+				population.add(mutate(incumbent));
+			}
+			List<Candidate> survivors = new ArrayList<Candidate>();
+			for (PlayerParams p : population) {
+				survivors.add(new Candidate(p));
+			}
+			long seed = baseSeed + ((long) gen << 32);
+			int played = 0;
+			int target = firstRoundGames;
+			while (true) {
+				race(survivors, seed, played, target);
+				played = target;
+				survivors.sort(Comparator.comparingDouble((Candidate c) -> c.stats.getMeanCountingErrors()).reversed());
+				if (survivors.size() == 1) {
+					break;
+				}
+				survivors = new ArrayList<Candidate>(survivors.subList(0, (survivors.size() + 1) / 2));
+				target *= 2;
+			}
+			incumbent = survivors.get(0).params;
+			System.out.printf("Generation %d: %s scored %s%n", gen, incumbent, survivors.get(0).stats);
+		}
+		return incumbent;
+	}
+
+	/**
+	 * Plays games from through to - 1 for every candidate at once and adds them to each one's stats.
+	 */
+	private void race(List<Candidate> candidates, long seed, int from, int to) {
+		List<List<Future<ScoreStats>>> pending = new ArrayList<List<Future<ScoreStats>>>();
+		for (Candidate c : candidates) {
+			List<Future<ScoreStats>> chunks = new ArrayList<Future<ScoreStats>>();
+			for (int start = from; start < to; start += GameBatch.CHUNK_SIZE) {
+				final int chunkFrom = start;
+				final int chunkTo = Math.min(to, start + GameBatch.CHUNK_SIZE);
+				chunks.add(pool.submit(() -> GameBatch.play(() -> new Player(c.params), () -> new Player(c.params),
+						seed, chunkFrom, chunkTo)));
+			}
+			pending.add(chunks);
+		}
+		for (int i = 0; i < candidates.size(); i++) {
+			candidates.get(i).stats.merge(GameBatch.collect(pending.get(i)));
+		}
+	}
+
+	/**
+	 * Changes one or two entries: thresholds move by a small random step, switches flip.
+	 */
+	private PlayerParams mutate(PlayerParams p) {
+		int[] v = p.toVector();
+		int changes = 1 + rng.nextInt(2);
+		for (int c = 0; c < changes; c++) {
+			int i = rng.nextInt(PlayerParams.SIZE);
+			if (PlayerParams.max(i) - PlayerParams.min(i) == 1) {
+				v[i] = 1 - v[i];
+			}
+			else {
+				int step = 1 + rng.nextInt(3);
+				v[i] += rng.nextBoolean() ? step : -step;
+			}
+		}
+		return new PlayerParams(v);
+	}
+
+	/**
+	 * Usage: tune &lt;generations&gt; &lt;population&gt; &lt;firstRoundGames&gt; &lt;seed&gt; [&lt;startParams&gt;]
+	 * Run it as java Driver tune ..., not with make run, which turns on -ea.
+	 */
+	public static void main(String[] args) {
+		if (args.length < 4) {
+			System.out.println("Usage: tune <generations> <population> <firstRoundGames> <seed> [<startParams>]");
+			System.out.println("Run without -ea (java Driver tune ..., not make run): Player's asserts fail in most games.");
+			return;
+		}
+		if (ParamTuner.class.desiredAssertionStatus()) {
+			System.out.println("Warning: assertions are on, so most games throw and score 0; run without -ea.");
+		}
+		int generations = Integer.parseInt(args[0]);
+		int population = Integer.parseInt(args[1]);
+		int firstRoundGames = Integer.parseInt(args[2]);
+		long seed = Long.parseLong(args[3]);
+		PlayerParams start = (args.length > 4) ? PlayerParams.parse(args[4]) : new PlayerParams();
+
+		ExecutorService pool = GameBatch.newPool();
+		long begin = System.nanoTime();
+		PlayerParams best = new ParamTuner(pool, seed).tune(start, generations, population, firstRoundGames, seed);
+
+		// Compare against the starting point on deals neither has seen.
+		long validationSeed = seed - (1L << 40);
+		int validationGames = firstRoundGames * 4;
+		ScoreStats before = GameBatch.play(() -> new Player(start), () -> new Player(start), validationSeed, validationGames, pool);
+		ScoreStats after = GameBatch.play(() -> new Player(best), () -> new Player(best), validationSeed, validationGames, pool);
+		pool.shutdown();
+		System.out.println("Start: " + start + " -> " + before);
+		System.out.println("Best:  " + best + " -> " + after);
+		System.out.printf("Tuning took %.1f s%n", (System.nanoTime() - begin) / 1e9);
+	}
+}
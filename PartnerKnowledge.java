@@ -0,0 +1,179 @@
+/**
+ * What the partner can know about each card in their hand, kept as 25-bit option masks in
+ * CardKnowledge.bitOf() positions and updated incrementally.
+ *
+ * This is the common-knowledge view: the hints they have been given, positive and negative, and
+ * card identities whose every copy has been played or discarded. Each update is a few mask
+ * operations, so hint selection can ask what a hint would teach (learned(), optionsAfter()) in
+ * constant time. Slots shift the way Hanabi's do: the played or discarded card leaves its slot and
+ * the drawn card is inserted at the draw index.
+ */
+public class PartnerKnowledge {
+	public static final int ALL_OPTIONS = (1 << Zobrist.NUM_CARDS) - 1;
+	private static final int ALL_VALUES_OF_FIRST_COLOR = (1 << Card.MAX_VALUE) - 1;
+	private static final int FIRST_VALUE_OF_ALL_COLORS = 0x108421;
+
+	private final int[] masks = new int[Hanabi.HAND_SIZE];
+	private final int[] revealed = new int[Zobrist.NUM_CARDS]; // copies played or discarded, by bitOf()
+	private int gone;		// identities with no copies left to draw or hold
+	private int colorClued;	// bit per slot: touched by a color hint
+	private int valueClued;	// bit per slot: touched by a number hint
+	private int size = Hanabi.HAND_SIZE;
+
+	public PartnerKnowledge() {
+		for (int i = 0; i < masks.length; i++) {
+			masks[i] = ALL_OPTIONS;
+		}
+	}
+
+	public static int colorBits(int color) {
+		return ALL_VALUES_OF_FIRST_COLOR << CardKnowledge.bitOf(color, Card.MIN_VALUE);
+	}
+
+	public static int valueBits(int value) {
+		return FIRST_VALUE_OF_ALL_COLORS << (value - Card.MIN_VALUE);
+	}
+
+	/**
+	 * @return the identities the partner cannot rule out for the card in slot
+	 */
+	public int mask(int slot) {
+		return masks[slot];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return which slots hints have touched, as bits in Player.getHintFlags() form
+	 */
+	public int cluedFlags() {
+		return colorClued | (valueClued << Hanabi.HAND_SIZE);
+	}
+
+	/**
+	 * Notes a card that is now public, played or discarded by either player. Once every copy of
+	 * an identity is out, no card in the partner's hand can be it.
+	 */
+	public void reveal(Card c) {
+		int bit = CardKnowledge.bitOf(c.color, c.value);
+		if (++revealed[bit] == Card.copiesOf(c.value)) {
+			gone |= 1 << bit;
+			for (int i = 0; i < size; i++) {
+				masks[i] &= ~(1 << bit);
+			}
+		}
+	}
+
+	/**
+	 * Removes the partner's card at slot and, if they drew, puts a fresh card at drawIndex.
+	 */
+	public void replace(int slot, boolean drew, int drawIndex) {
+		for (int i = slot; i < size - 1; i++) {
+			masks[i] = masks[i + 1];
+		}
+		colorClued = removeBit(colorClued, slot);
+		valueClued = removeBit(valueClued, slot);
+		size--;
+		if (!drew) {
+			return;
+		}
+		for (int i = size; i > drawIndex; i--) {
+			masks[i] = masks[i - 1];
+		}
+		masks[drawIndex] = ALL_OPTIONS & ~gone;
+		colorClued = insertBit(colorClued, drawIndex);
+		valueClued = insertBit(valueClued, drawIndex);
+		size++;
+	}
+
+	private static int removeBit(int flags, int slot) {
+		int low = flags & ((1 << slot) - 1);
+		return low | ((flags >>> (slot + 1)) << slot);
+	}
+
+	private static int insertBit(int flags, int slot) {
+		int low = flags & ((1 << slot) - 1);
+		return low | ((flags >>> slot) << (slot + 1));
+	}
+
+	/**
+	 * Applies a hint given to the partner.
+	 * @param slots The slots the hint touches, one bit each; see slotsFor().
+	 */
+	public void hint(int slots, boolean color, int arg) {
+		int bits = color ? colorBits(arg) : valueBits(arg);
+		for (int i = 0; i < size; i++) {
+			masks[i] &= ((slots & (1 << i)) != 0) ? bits : ~bits;
+		}
+		if (color) {
+			colorClued |= slots;
+		}
+		else {
+			valueClued |= slots;
+		}
+	}
+
+	/**
+	 * Records that the partner already knows the color or value of the card in slot, as at the start of
+	 * a Scenario. Unlike hint(), other slots learn nothing, since the cards now beside it may have been
+	 * drawn after the hint was given.
+	 */
+	public void clue(int slot, boolean color, int arg) {
+		masks[slot] &= color ? colorBits(arg) : valueBits(arg);
+		if (color) {
+			colorClued |= 1 << slot;
+		}
+		else {
+			valueClued |= 1 << slot;
+		}
+	}
+
+	/**
+	 * @return the slots of hand a hint would touch, one bit each
+	 */
+	public static int slotsFor(Hand hand, boolean color, int arg) {
+		int slots = 0;
+		for (int i = 0; i < hand.size(); i++) {
+			if ((color ? hand.colorAt(i) : hand.valueAt(i)) == arg) {
+				slots |= 1 << i;
+			}
+		}
+		return slots;
+	}
+
+	/**
+	 * @return the options the partner would have left for slot after a hint touching slots
+	 */
+	public int optionsAfter(int slot, int slots, boolean color, int arg) {
+		int bits = color ? colorBits(arg) : valueBits(arg);
+		return masks[slot] & (((slots & (1 << slot)) != 0) ? bits : ~bits);
+	}
+
+	/**
+	 * @return the slots whose options a hint touching slots would narrow, one bit each
+	 */
+	public int learned(int slots, boolean color, int arg) {
+		int narrowed = 0;
+		for (int i = 0; i < size; i++) {
+			if (optionsAfter(i, slots, color, arg) != masks[i]) {
+				narrowed |= 1 << i;
+			}
+		}
+		return narrowed;
+	}
+
+	/**
+	 * @return the slots a hint touching slots would narrow to a single identity, one bit each
+	 */
+	public int identified(int slots, boolean color, int arg) {
+		int known = 0;
+		for (int i = 0; i < size; i++) {
+			if (Integer.bitCount(optionsAfter(i, slots, color, arg)) == 1) {
+				known |= 1 << i;
+			}
+		}
+		return known;
+	}
+}
@@ -1,6 +1,5 @@
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Comparator;
 import java.util.Set;
 import java.util.HashSet;
 
@@ -8,27 +7,146 @@ import java.util.HashSet;
 public class Player {
 	private CardKnowledge[] ourDeckKnowledge;
 	private Set<Card> ourImpossibleCards;
-	private CardKnowledge[] theirDeckKnowledge;
-	private Set<Card> theirImpossibleCards;
+	private final PartnerKnowledge partnerKnowledge = new PartnerKnowledge();
+	private final HintEvaluator hints = new HintEvaluator();
 
 	private boolean hasColorHinted[];
 	private boolean hasNumberHinted[];
 
+	private int lastBranch = DecisionStats.FALLTHROUGH; // the ask() branch behind our most recent action
+
+	private boolean hasMoveDeadline;
+	private long moveDeadline; // System.nanoTime() by which the current ask() should return
+
+	private final Strategy strategy;
+	private final DecisionCache decisionCache; // null unless caching is on and ask() is not overridden
+	private DecisionCache.KeyBuilder cacheKey;
+	private int[] cacheOutcome;
+
 	public Player() {
+		this(Strategy.getDefault());
+	}
+
+	/**
+	 * @param params The thresholds and switches ask() uses in place of its built-in defaults.
+	 */
+	public Player(PlayerParams params) {
+		this(Strategy.fromParams(params));
+	}
+
+	/**
+	 * @param strategy The rules ask() tries, in order, after checking for an empty hint pool.
+	 */
+	public Player(Strategy strategy) {
+		this.strategy = strategy;
+		// Subclasses may override the helpers ask() calls, so only plain Players share cached decisions.
+		if (DecisionCache.ENABLED && getClass() == Player.class) {
+			decisionCache = DecisionCache.forStrategy(strategy);
+			cacheKey = new DecisionCache.KeyBuilder();
+			cacheOutcome = new int[1];
+		}
+		else {
+			decisionCache = null;
+		}
 
 		ourDeckKnowledge = new CardKnowledge[5];
-		theirDeckKnowledge = new CardKnowledge[5]; // TODO implement this
 		for (int i = 0; i < 5; i++) {
 			ourDeckKnowledge[i] = new CardKnowledge();
-			theirDeckKnowledge[i] = new CardKnowledge();
 		}
 		ourImpossibleCards = new HashSet<Card>();
-		theirImpossibleCards = new HashSet<Card>();
 
 		hasColorHinted = new boolean[5];
 		hasNumberHinted = new boolean[5];
 	}
 
+	/**
+	 * Sets up knowledge for a game that starts mid-way (see Scenario), in place of the tell...() calls
+	 * an ordinary game would have made. Cards whose copies are all discarded or played are ruled out
+	 * of every slot, then the clues we were given, and those the partner was given, are applied.
+	 * @param boardState The board the game starts from.
+	 * @param clueColors The color we have been told for each of our slots, or -1.
+	 * @param clueValues The value we have been told for each of our slots, or -1.
+	 * @param partnerClueColors The color the partner has been told for each of their slots, or -1.
+	 * @param partnerClueValues The value the partner has been told for each of their slots, or -1.
+	 * @param hintFlags Which of the partner's slots we have hinted, as returned by getHintFlags().
+	 */
+	public void primeKnowledge(Board boardState, int[] clueColors, int[] clueValues, int[] partnerClueColors,
+			int[] partnerClueValues, int hintFlags) {
+		int[] gone = new int[Zobrist.NUM_CARDS];
+		for (Card c : boardState.discards) {
+			gone[CardKnowledge.bitOf(c.color, c.value)]++;
+		}
+		for (int color = 0; color < 5; color++) {
+			for (int value = Card.MIN_VALUE; value <= boardState.tableau.get(color); value++) {
+				gone[CardKnowledge.bitOf(color, value)]++;
+			}
+		}
+		for (int i = 0; i < Zobrist.NUM_CARDS; i++) {
+			Card card = new Card(i / Card.MAX_VALUE, i % Card.MAX_VALUE + Card.MIN_VALUE);
+			for (int n = 0; n < gone[i]; n++) {
+				partnerKnowledge.reveal(card);
+			}
+			if (gone[i] == Card.copiesOf(card.value)) {
+				for (int slot = 0; slot < 5; slot++) {
+					ourDeckKnowledge[slot].eliminateCard(card);
+				}
+				ourImpossibleCards.add(card);
+			}
+		}
+		for (int slot = 0; slot < clueColors.length; slot++) {
+			if (clueColors[slot] >= 0) {
+				ourDeckKnowledge[slot].knowColor(clueColors[slot]);
+			}
+			if (clueValues[slot] >= 0) {
+				ourDeckKnowledge[slot].knowValue(clueValues[slot]);
+			}
+		}
+		for (int slot = 0; slot < partnerClueColors.length; slot++) {
+			if (partnerClueColors[slot] >= 0) {
+				partnerKnowledge.clue(slot, true, partnerClueColors[slot]);
+			}
+			if (partnerClueValues[slot] >= 0) {
+				partnerKnowledge.clue(slot, false, partnerClueValues[slot]);
+			}
+		}
+		setHintFlags(hintFlags);
+	}
+
+	/**
+	 * This method runs before ask() when the game has a per-move time budget. Players that search
+	 * should check outOfTime() and return their best action so far once it is true.
+	 * @param deadlineNanos The System.nanoTime() value by which ask() should return.
+	 */
+	public void setMoveDeadline(long deadlineNanos) {
+		hasMoveDeadline = true;
+		moveDeadline = deadlineNanos;
+	}
+
+	/**
+	 * @return the nanoseconds left before the current move's deadline; Long.MAX_VALUE if there is none
+	 */
+	protected long timeRemaining() {
+		return hasMoveDeadline ? moveDeadline - System.nanoTime() : Long.MAX_VALUE;
+	}
+
+	protected boolean outOfTime() {
+		return timeRemaining() <= 0;
+	}
+
+	/**
+	 * @return what the partner can know about each of their cards, kept up to date by the tell...() methods and our hints
+	 */
+	protected PartnerKnowledge getPartnerKnowledge() {
+		return partnerKnowledge;
+	}
+
+	/**
+	 * @return what we know about the card at index in our own hand
+	 */
+	protected CardKnowledge getOurKnowledge(int index) {
+		return ourDeckKnowledge[index];
+	}
+
 	/**
 	 * This method runs whenever your partner discards a card.
 	 * @param startHand The hand your partner started with before discarding.
@@ -45,16 +163,11 @@ public class Player {
 		if (discard != null) {
 			hasNumberHinted[disIndex] = false; // reset hints for new index
 			hasColorHinted[disIndex] = false; // reset hints for new index
-			// If the partner discarded a card, it means that card is not playable
-			this.removeCardAndUpdateImpossible(boardState, discard, theirDeckKnowledge, theirImpossibleCards);
+			partnerKnowledge.reveal(discard);
+			partnerKnowledge.replace(disIndex, draw != null, drawIndex);
 		}
-		// If the partner drew a card, update knowledge
-		if (draw != null) {
-			// If the partner drew a card, add it to knowledge
-			theirDeckKnowledge[disIndex] = new CardKnowledge(theirImpossibleCards);
-			//theirDeckKnowledge[disIndex].eliminateNonPlayableOptions(boardState);
-		}
-		else {
+		// The partner could not draw a card
+		if (draw == null) {
 			assert false;
 		}
 	}
@@ -72,6 +185,7 @@ public class Player {
 		if (discard != null) {
 			// If you discarded a card, it means that card is not playable
 			this.removeCardAndUpdateImpossible(boardState, discard, ourDeckKnowledge, ourImpossibleCards);
+			partnerKnowledge.reveal(discard);
 		}
 		// If you drew a card, update knowledge
 		if (drawSucceeded) {
@@ -101,23 +215,12 @@ public class Player {
 		if (play != null) {
 			hasColorHinted[playIndex] = false; // reset hints for new index
 			hasNumberHinted[playIndex] = false; // reset hints for new index
-			if (wasLegalPlay) {
-				// If the partner played a card legally, update knowledge
-				for (CardKnowledge knowledge : theirDeckKnowledge) {
-					knowledge.eliminateCard(draw);
-				}
-			} else {
-				// If the partner played a card illegally, it must have been discarded
-				//knowledge.eliminateCard(play);
-			}
-			this.removeCardAndUpdateImpossible(boardState, draw, theirDeckKnowledge, theirImpossibleCards);
+			// Legal or not, the played card is now public; its slot is refilled by the draw.
+			partnerKnowledge.reveal(play);
+			partnerKnowledge.replace(playIndex, draw != null, drawIndex);
 		}
-		// If the partner drew a card, update knowledge
-		if (draw != null) {
-			// If the partner drew a card, add it to knowledge
-			theirDeckKnowledge[playIndex] = new CardKnowledge(theirImpossibleCards);
-		}
-		else {
+		// The partner could not draw a card
+		if (draw == null) {
 			assert false;
 		}
 	}
@@ -133,6 +236,9 @@ public class Player {
 	 */
 	public void tellYourPlay(Card play, int playIndex, int drawIndex, boolean drawSucceeded,
 							 boolean wasLegalPlay, Board boardState) {
+		if (DecisionStats.ENABLED && !wasLegalPlay) {
+			DecisionStats.misplay(lastBranch, boardState.numFuses <= 0);
+		}
 		if (play != null) {
 			if (wasLegalPlay) {
 				// If you played a card legally, update knowledge
@@ -144,7 +250,7 @@ public class Player {
 				// If you played a card illegally, it must have been discarded
 			}
 			this.removeCardAndUpdateImpossible(boardState, play, ourDeckKnowledge, ourImpossibleCards);
-
+			partnerKnowledge.reveal(play);
 		}
 		// If you drew a card, update knowledge
 		if (drawSucceeded) {
@@ -213,178 +319,138 @@ public class Player {
 	 *     more card
 	 */
 	public String ask(int yourHandSize, Hand partnerHand, Board boardState) {
-		//If this is the start of the game and none of the hints have been used, check to see if there are any fives in your partner's hands and hint them to him
-		double precentage_of_non_empty_spaces = getPercentageOfNonEmptySpaces(boardState);
-//		System.out.println("");
-
-		if (boardState.numHints == 0){
-			int disc_idx = this.getDiscardIndex(ourDeckKnowledge);
-			return "DISCARD " + disc_idx + " " + disc_idx;
-		}
-
-		// beginning of the game
-//		if (precentage_of_non_empty_spaces < 1) {
-			//If not all the ones have been played in the tableue, keep checking and hinting for ones
-			if (boardState.tableau.get(0) == 0 || boardState.tableau.get(1) == 0 || boardState.tableau.get(2) == 0 || boardState.tableau.get(3) == 0 || boardState.tableau.get(4) == 0) {
-				String result = this.hintDiscard(partnerHand, boardState, 1,false);
-				if (result != null) {
-					return result;
-				}
-
-				result = this.play(boardState, 1);
-				if (result != null) {
-					return result;
-				}
-
-				result = this.hint(partnerHand, boardState, 1,false);
-				if (result != null) {
-					return result;
-				}
-
-				//If over half of the ones are filled, start hinting and playing 2s
-				if (boardState.getTableauScore() >= 0) {
-					result = this.hintDiscard(partnerHand, boardState, 2,false);
-					if (result != null) {
-						return result;
-					}
-
-					result = this.play(boardState, 2);
-					if (result != null) {
-						return result;
-					}
-					result = this.hint(partnerHand, boardState, 2,false);
-					if (result != null) {
-						return result;
-					}
-				}
-			}
-
-
-		//}
-			// If not all the twos have been played in the tableue, keep checking and hinting for twos
-		else if (boardState.tableau.get(0) == 1 || boardState.tableau.get(1) == 1 || boardState.tableau.get(2) == 1 || boardState.tableau.get(3) == 1 || boardState.tableau.get(4) == 1) {
-			String result = this.hintDiscard(partnerHand, boardState, 2,false);
-			if (result != null) {
-				return result;
-			}
-
-			result = this.play(boardState, 2);
-			if (result != null) {
-				return result;
-			}
-
-			result = this.hint(partnerHand, boardState, 2,false);
-			if (result != null) {
-				return result;
-			}
-
-			//If over half of the twos are filled, start hinting and playing 3s
-			if (boardState.getTableauScore() >= 8) {
-				result = this.hintDiscard(partnerHand, boardState, 3,false);
-				if (result != null) {
-					return result;
-				}
-
-				result = this.play(boardState, 3);
-				if (result != null) {
-					return result;
-				}
-				result = this.hint(partnerHand, boardState, 3,false);
-				if (result != null) {
-					return result;
-				}
-
+		String action = heuristicAction(yourHandSize, partnerHand, boardState);
+		notePartnerHint(action, partnerHand);
+		return action;
+	}
 
-			}
+	/**
+	 * The action ask() would choose. Our hint flags are updated for it, but partnerKnowledge is not;
+	 * a subclass that gives a different action calls markHinted() and notePartnerHint() itself.
+	 */
+	protected String heuristicAction(int yourHandSize, Hand partnerHand, Board boardState) {
+		return (decisionCache == null) ? decide(yourHandSize, partnerHand, boardState)
+				: decideCached(yourHandSize, partnerHand, boardState);
+	}
 
+	/**
+	 * Sets the hint flags of every partner slot a hint action touches.
+	 */
+	protected void markHinted(String action, Hand partnerHand) {
+		boolean color = action.startsWith("COLORHINT");
+		if (color || action.startsWith("NUMBERHINT")) {
+			int arg = action.charAt(action.length() - 1) - '0';
+			int slots = PartnerKnowledge.slotsFor(partnerHand, color, arg);
+			setHintFlags(getHintFlags() | (color ? slots : slots << Hanabi.HAND_SIZE));
 		}
+	}
 
-		//If not all the threes have been played in the tableue, keep checking and hinting for threes
-		else if (boardState.tableau.get(0) == 2 || boardState.tableau.get(1) == 2 || boardState.tableau.get(2) == 2 || boardState.tableau.get(3) == 2 || boardState.tableau.get(4) == 2) {
-			String result = this.hintDiscard(partnerHand, boardState, 3,false);
-			if (result != null) {
-				return result;
-			}
+	/**
+	 * Applies a hint we are about to give to partnerKnowledge; the game tells only the partner about it.
+	 */
+	protected void notePartnerHint(String action, Hand partnerHand) {
+		boolean color = action.startsWith("COLORHINT");
+		if (color || action.startsWith("NUMBERHINT")) {
+			int arg = action.charAt(action.length() - 1) - '0';
+			partnerKnowledge.hint(PartnerKnowledge.slotsFor(partnerHand, color, arg), color, arg);
+		}
+	}
 
-			result = this.play(boardState, 3);
-			if (result != null) {
-				return result;
-			}
+	/**
+	 * decide() through the shared DecisionCache.
+	 */
+	private String decideCached(int yourHandSize, Hand partnerHand, Board boardState) {
+		decisionKey(yourHandSize, partnerHand, boardState, cacheKey);
+		String cached = decisionCache.get(cacheKey, cacheOutcome);
+		if (cached != null && !DecisionCache.VERIFY) {
+			setHintFlags(cacheOutcome[0] & 0x3FF);
+			return this.decided(cacheOutcome[0] >>> 16, cached);
+		}
+		String action = decide(yourHandSize, partnerHand, boardState);
+		int outcome = lastBranch << 16 | getHintFlags();
+		if (cached == null) {
+			decisionCache.put(cacheKey, action, outcome);
+		}
+		else if (!cached.equals(action) || cacheOutcome[0] != outcome) {
+			throw new IllegalStateException("Player.ask() - cached decision " + cached + " differs from computed " + action);
+		}
+		return action;
+	}
 
-			result = this.hint(partnerHand, boardState, 3,false);
-			if (result != null) {
-				return result;
+	/**
+	 * Packs everything decide() reads into key: hand size, hints, tableau, discard counts, our card
+	 * knowledge, our hint flags, and the partner's hand. Fuses and deck size are not read, so they are
+	 * left out to let more states share an entry.
+	 */
+	private void decisionKey(int yourHandSize, Hand partnerHand, Board boardState, DecisionCache.KeyBuilder key) {
+		key.reset();
+		key.put(yourHandSize, 3);
+		key.put(boardState.numHints, 4);
+		for (int i = 0; i < 5; i++) {
+			key.put(boardState.tableau.get(i), 3);
+		}
+		key.put(boardState.packedDiscards(), 50); // at most three copies of any card
+		for (int i = 0; i < 5; i++) {
+			key.put(ourDeckKnowledge[i].optionMask(), 25);
+			key.put(ourDeckKnowledge[i].hasBeenHinted ? 1 : 0, 1);
+		}
+		key.put(getHintFlags(), 10);
+		for (int i = 0; i < 5; i++) {
+			if (i < partnerHand.size()) {
+				Card c = partnerHand.get(i);
+				key.put(CardKnowledge.bitOf(c.color, c.value), 5);
 			}
-
-			//If over half of the threes are filled, start hinting and playing 4s
-			if (boardState.getTableauScore() >=  13){
-				result = this.hintDiscard(partnerHand, boardState, 4,false);
-				if (result != null) {
-					return result;
-				}
-				result = this.play(boardState, 4);
-				if (result != null) {
-					return result;
-				}
-				result = this.hint(partnerHand, boardState, 4,false);
-				if (result != null) {
-					return result;
-				}
-
-
+			else {
+				key.put(31, 5);
 			}
 		}
-		//If not all the fours have been played in the tableue, keep checking and hinting for fours
-		else if (boardState.tableau.get(0) == 3 || boardState.tableau.get(1) == 3 || boardState.tableau.get(2) == 3 || boardState.tableau.get(3) == 3 || boardState.tableau.get(4) == 3) {
-			String result = this.hintDiscard(partnerHand, boardState, 4,false);
-			if (result != null) {
-				return result;
-			}
+	}
 
-			result = this.play(boardState, 4);
-			if (result != null) {
-				return result;
+	/**
+	 * @return which of the partner's slots we have hinted: bit i for a color hint on slot i, bit i + 5 for a number hint
+	 */
+	protected int getHintFlags() {
+		int flags = 0;
+		for (int i = 0; i < 5; i++) {
+			if (hasColorHinted[i]) {
+				flags |= 1 << i;
 			}
-
-			result = this.hint(partnerHand, boardState, 4,false);
-			if (result != null) {
-				return result;
+			if (hasNumberHinted[i]) {
+				flags |= 1 << (i + 5);
 			}
+		}
+		return flags;
+	}
 
-			//If over half of the threes are filled, start hinting and playing 4s
-			if (boardState.getTableauScore() >= 18) {
-				result = this.hintDiscard(partnerHand, boardState, 5,true);
-				if (result != null) {
-					return result;
-				}
-				result = this.play(boardState, 5);
-				if (result != null) {
-					return result;
-				}
-				result = this.hint(partnerHand, boardState, 5,true);
-				if (result != null) {
-					return result;
-				}
-
-
-			}
+	protected void setHintFlags(int flags) {
+		for (int i = 0; i < 5; i++) {
+			hasColorHinted[i] = (flags & (1 << i)) != 0;
+			hasNumberHinted[i] = (flags & (1 << (i + 5))) != 0;
 		}
+	}
 
-		//If not all the fives have been played in the tableue, keep checking and hinting for fives
-		else if (boardState.tableau.get(0) == 4 || boardState.tableau.get(1) == 4 || boardState.tableau.get(2) == 4 || boardState.tableau.get(3) == 4 || boardState.tableau.get(4) == 4) {
-			String result = this.hintDiscard(partnerHand, boardState, 5,true);
-			if (result != null) {
-				return result;
-			}
+	/**
+	 * Chooses an action from scratch; ask() without the decision cache.
+	 */
+	private String decide(int yourHandSize, Hand partnerHand, Board boardState) {
+		//If this is the start of the game and none of the hints have been used, check to see if there are any fives in your partner's hands and hint them to him
+		double precentage_of_non_empty_spaces = getPercentageOfNonEmptySpaces(boardState);
+//		System.out.println("");
 
-			result = this.play(boardState, 5);
-			if (result != null) {
-				return result;
-			}
+		if (boardState.numHints == 0){
+			int disc_idx = this.getDiscardIndex(ourDeckKnowledge);
+			return this.decided(DecisionStats.NO_HINTS, "DISCARD " + disc_idx + " " + disc_idx);
+		}
 
-			result = this.hint(partnerHand, boardState, 5,true);
+		hints.load(partnerHand, boardState);
+		for (Strategy.Rule rule : strategy.rulesFor(boardState)) {
+			String result = switch (rule.op) {
+				case Strategy.HINT_DISCARD -> this.hintDiscard(partnerHand, boardState, rule.value, rule.careAboutFives);
+				case Strategy.PLAY -> this.play(boardState, rule.value);
+				default -> this.hint(partnerHand, boardState, rule.value, rule.careAboutFives);
+			};
 			if (result != null) {
-				return result;
+				return this.decided(rule.branch, result);
 			}
 		}
 //		System.out.println("Fuses: " + boardState.numFuses);
@@ -403,53 +469,45 @@ public class Player {
 //			 }
 //		}
 
-		return "DISCARD 0 0"; // Discard the first card in hand
+		return this.decided(DecisionStats.FALLTHROUGH, "DISCARD 0 0"); // Discard the first card in hand
 	}
 
-	public String hintDiscard(Hand partnerHand, Board boardState, int importantValue, boolean careAboutFives) {
-		int discardIndex = this.getPartnerDiscardIndex();
-		Card rightmostCard = partnerHand.get(discardIndex);
-		boolean rightmostCardIsImportant = this.cardIsImportant(boardState,
-																rightmostCard,
-																careAboutFives);
-		if (rightmostCard.value == importantValue || rightmostCardIsImportant) {
-			// check if the left card has more priority
-			if (discardIndex > 0) { // valid left card
-				Card leftCard = partnerHand.get(discardIndex - 1);
-				boolean leftCardIsImportant = this.cardIsImportant(boardState,
-																leftCard,
-																careAboutFives);
-				int importantIndex = -1;
-				Card importantCard = null;
-				if (rightmostCardIsImportant) {
-//					System.out.println("rightmostCard: " + rightmostCard.toString());
-//					System.out.println("rightImportant: " + rightmostCardIsImportant);
-//					System.out.println("leftCard: " + leftCard.toString());
-//					System.out.println("leftImportant: " + leftCardIsImportant);
-					if (rightmostCard.value >= leftCard.value ||
-						(rightmostCardIsImportant && !leftCardIsImportant)) {
-						importantIndex = discardIndex;
-						importantCard = rightmostCard;
-					}
-					else {
-						importantIndex = discardIndex - 1;
-						importantCard = leftCard;
-					}
-//					System.out.println("importantCard: " + importantCard.toString());
-
-					// use a number hint unless it is immediately playable
-					if (this.cardIsImmediatelyPlayable(leftCard, boardState)){
-						this.hasColorHinted[importantIndex] = true;
-						return "COLORHINT " + importantCard.color;
-					}
-					else{
-						this.hasNumberHinted[importantIndex] = true;
-						return "NUMBERHINT " + importantCard.value;
-					}
-				}
+	/**
+	 * Records which branch of ask() produced an action, so later outcomes can be attributed to it.
+	 * @param branch The branch id from DecisionStats.
+	 * @param action The action chosen by that branch; null if the branch declined.
+	 * @return action, unchanged
+	 */
+	protected String decided(int branch, String action) {
+		if (action != null) {
+			lastBranch = branch;
+			if (DecisionStats.ENABLED) {
+				DecisionStats.hit(branch);
 			}
 		}
-		return null;
+		return action;
+	}
+
+	/**
+	 * Protects the card the partner would discard next, or the one left of it, if it is the last copy.
+	 * importantValue is unused; the rule only fires for important cards.
+	 */
+	public String hintDiscard(Hand partnerHand, Board boardState, int importantValue, boolean careAboutFives) {
+		int discardIndex = this.getPartnerDiscardIndex();
+		int important = hints.important(careAboutFives);
+		if ((important & (1 << discardIndex)) == 0 || discardIndex == 0) {
+			return null;
+		}
+		int leftIndex = discardIndex - 1;
+		int importantIndex = (hints.value(discardIndex) >= hints.value(leftIndex) || (important & (1 << leftIndex)) == 0)
+				? discardIndex : leftIndex;
+		// use a number hint unless the left card is immediately playable
+		if ((hints.playable() & (1 << leftIndex)) != 0) {
+			this.hasColorHinted[importantIndex] = true;
+			return HintEvaluator.action(HintEvaluator.colorHint(hints.color(importantIndex)));
+		}
+		this.hasNumberHinted[importantIndex] = true;
+		return HintEvaluator.action(HintEvaluator.valueHint(hints.value(importantIndex)));
 	}
 
 	public String play(Board boardState, int importantValue){
@@ -495,62 +553,72 @@ public class Player {
 		return null;
 	}
 
+	/**
+	 * Hints a playable importantValue card by color if that touches no other card, else hints every
+	 * importantValue card by number, as long as the hint does not leave an important card as the
+	 * partner's next discard. When several color hints qualify, the one that would teach the partner
+	 * most (see teaching()) wins. Discards our rightmost unhinted card if neither hint applies.
+	 */
 	public String hint(Hand partnerHand, Board boardState, int importantValue, boolean careAboutFives) {
-		// Going to Use Color Hint
-		// the goal: ensure only there is only one card in the
-		// deck with one color
-		//
-		// this is indexed by the color
-		// if a card has not been here before (the item is -1),
-		//     it sets the item to its index in the deck
-		// if a card sees that another card has set its
-		//     index, then it knows that the entry is invalid
-		//     and sets it to a -2
-		// Going to Hint
-		boolean will_number_hint = false;
-		ArrayList<Integer> number_hint_indices = new ArrayList<Integer>();
-
-
-		for (int i = 0; i < partnerHand.size(); i++) {
-			Card card = partnerHand.get(i);
-			// checking to see if it is a 1, no other color matches, hint hasn't been given before, and card is immediately playable
-
-			// checking to see if it is a 1, no other color matches, and hint hasn't been given before
-			if (card.value == importantValue &&
-				this.shouldHint(boardState, partnerHand, this.getColorHintIndicies(boardState, partnerHand, card.color), careAboutFives) &&
-				((countColorMatches(card, partnerHand) < 2 && !hasColorHinted[i]) || hasNumberHinted[i]) &&
-				this.cardIsImmediatelyPlayable(card, boardState)) {
-//				System.out.println("COLORHINT Card: " + card.toString());
-				hasColorHinted[i] = true; // this card has been hinted at
-				return "COLORHINT " + card.color;
+		int numberHint = HintEvaluator.valueHint(importantValue);
+		int candidates = hints.slots(numberHint);
+		if (candidates != 0) {
+			int discardIndex = this.getPartnerDiscardIndex();
+			int safe = hints.safeHints(discardIndex, careAboutFives);
+			int numberSlots = 0;
+			int best = -1;
+			int bestTeaching = -1;
+			for (int i = 0; i < hints.size(); i++) {
+				if ((candidates & (1 << i)) == 0) {
+					continue;
+				}
+				int colorHint = HintEvaluator.colorHint(hints.color(i));
+				if ((safe & (1 << colorHint)) != 0 &&
+					((Integer.bitCount(hints.slots(colorHint)) < 2 && !hasColorHinted[i]) || hasNumberHinted[i]) &&
+					(hints.playable() & (1 << i)) != 0) {
+					int t = teaching(hints.slots(colorHint), true, hints.color(i));
+					if (t > bestTeaching) {
+						best = i;
+						bestTeaching = t;
+					}
+				}
+				// will do a number hint; doesn't make sense if already done
+				else if (!hasNumberHinted[i]) {
+					numberSlots |= 1 << i;
+				}
 			}
-			// will do a number hint; doesn't make sense if already done
-			else if (card.value == importantValue && !hasNumberHinted[i]) {
-				will_number_hint = true;
-				number_hint_indices.add(i);
+			if (best >= 0) {
+				hasColorHinted[best] = true; // this card has been hinted at
+				return HintEvaluator.action(HintEvaluator.colorHint(hints.color(best)));
 			}
-		}
-		// hint all 1's and add them to the number hinted array
-		if (will_number_hint  &&
-			this.shouldHint(boardState, partnerHand, number_hint_indices, careAboutFives)) {
-			for (int index : number_hint_indices) {
-				hasNumberHinted[index] = true;
+			// hint all of them and add them to the number hinted array
+			if (numberSlots != 0 && hints.keepsSafe(numberSlots, discardIndex, careAboutFives)) {
+				for (int i = 0; i < hints.size(); i++) {
+					if ((numberSlots & (1 << i)) != 0) {
+						hasNumberHinted[i] = true;
+					}
+				}
+				return HintEvaluator.action(numberHint);
 			}
-
-			return "NUMBERHINT " + importantValue;
 		}
 		// discard the rightmost card
-		// probably wrong syntax
-		else {
-			for (int i = 4; i > -1; i--) {
-				if (!ourDeckKnowledge[i].hasBeenHinted) {
-					return "DISCARD " + i + " " + i;
-				}
+		for (int i = 4; i > -1; i--) {
+			if (!ourDeckKnowledge[i].hasBeenHinted) {
+				return "DISCARD " + i + " " + i;
 			}
 		}
 		return null;
 	}
 
+	/**
+	 * @return how much a hint touching slots would teach the partner: cards it would pin to one
+	 * identity first, then cards whose options it would narrow
+	 */
+	private int teaching(int slots, boolean color, int arg) {
+		int identified = Integer.bitCount(partnerKnowledge.identified(slots, color, arg));
+		return identified * (Hanabi.HAND_SIZE + 1) + Integer.bitCount(partnerKnowledge.learned(slots, color, arg));
+	}
+
 	public double getPercentageOfNonEmptySpaces(Board boardState) {
 		int number_of_non_empty_spaces = 0;
 		for (Integer card : boardState.tableau) {
@@ -562,28 +630,6 @@ public class Player {
 		return (double)number_of_non_empty_spaces/(double)boardState.tableau.size();
 	}
 
-	public int countColorMatches(Card card, Hand hand) {
-		int matches = 0;
-		for (int i = 0; i < hand.size(); i++) {
-			Card comparisonCard = hand.get(i);
-			if (card.color == comparisonCard.color) {
-				matches++;
-			}
-		}
-		return matches;
-	}
-
-	public int countNumberMatches(Card card, Hand hand) {
-		int matches = 0;
-		for (int i = 0; i < hand.size(); i++) {
-			Card comparisonCard = hand.get(i);
-			if (card.value == comparisonCard.value) {
-				matches++;
-			}
-		}
-		return matches;
-	}
-
 	public int discardMatches (Board boardState, Card card) {
 		int matches = 0;
 		for (Card discard : boardState.discards) {
@@ -601,9 +647,8 @@ public class Player {
 	public void removeCardAndUpdateImpossible(Board boardState, Card card,
 											  CardKnowledge knowledge[],
 											  Set<Card> impossibleCards) {
-		int[] avaliable_cards = { 3, 2, 2, 2, 1 };
 		int matches = discardMatches(boardState, card);
-		if (matches + 1 == avaliable_cards[card.value - 1]) { // TODO fix
+		if (matches + 1 == Card.copiesOf(card.value)) { // TODO fix
 			for (CardKnowledge know : knowledge) { // inefficent, but works
 				know.eliminateCard(card);
 			}
@@ -611,22 +656,6 @@ public class Player {
 		}
 	}
 
-	public boolean cardIsImportant(Board boardState, Card card, boolean careAboutFives) {
-		if (card.value == 5 && !careAboutFives) {
-			return false;
-		}
-
-		int[] avaliable_cards = { 3, 2, 2, 2, 1 };
-		int matches = discardMatches(boardState, card);
-		if (matches + 1 == avaliable_cards[card.value - 1]) {
-//			System.out.println("Important: " + card.toString() + " = true");
-			return true;
-		}
-
-//		System.out.println("Important: " + card.toString() + " = false");
-		return false;
-	}
-
 	public int getPartnerDiscardIndex() {
 		for (int i = 4; i > -1; i--) {
 			if (!this.hasColorHinted[i] && !this.hasNumberHinted[i]){
@@ -654,59 +683,4 @@ public class Player {
 //		System.out.println("cardImmediately: " + card.toString() + " " + result);
 		return result;
 	}
-
-	public boolean shouldHint(Board boardState, Hand partnerHand,
-							  ArrayList<Integer> hintIndicies, boolean careAboutFives) {
-		// get the new discard index if hint is applied
-		hintIndicies.sort(Comparator.reverseOrder());
-//		System.out.println("Hint Indicies: " + hintIndicies.toString());
-
-		int discardIndex = this.getPartnerDiscardIndex();
-		int newDiscardIndex = discardIndex;
-
-//		System.out.println("Discard Index: " + discardIndex);
-
-		for (int index : hintIndicies) {
-			// left of discard index
-			if (index == newDiscardIndex) {
-				newDiscardIndex = index - 1;
-			}
-		}
-
-//		System.out.println("New Discard Index: " + newDiscardIndex);
-
-		// see if next left card is important
-		if (newDiscardIndex > -1 && this.cardIsImportant(boardState, partnerHand.get(newDiscardIndex),
-								 careAboutFives)) {
-//			System.out.println("Card was Important");
-			return false;
-		}
-
-		return true;
-	}
-
-	public ArrayList<Integer> getColorHintIndicies(Board boardState, Hand partnerHand, int color) {
-//		System.out.println("GetColorHintIndicesInput: " + color);
-		ArrayList<Integer> output = new ArrayList<Integer>();
-
-		for (int i = 0; i < 5; i++) {
-			Card card = partnerHand.get(i);
-			if (card.color == color) {
-				output.add(i);
-			}
-		}
-		return output;
-	}
-
-	public ArrayList<Integer> getNumberHintIndicies(Board boardState, Hand partnerHand, int color) {
-		ArrayList<Integer> output = new ArrayList<Integer>();
-
-		for (int i = 0; i < 5; i++) {
-			Card card = partnerHand.get(i);
-			if (card.color == color) {
-				output.add(i);
-			}
-		}
-		return output;
-	}
 }
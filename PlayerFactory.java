@@ -0,0 +1,35 @@
+import java.lang.reflect.Constructor;
+import java.util.function.Supplier;
+
+/**
+ * Makes fresh Player instances from a class name, for tools that take players on the command line.
+ */
+public class PlayerFactory {
+
+	/**
+	 * @param className The name of a Player subclass with a public no-argument constructor.
+	 * @return a supplier that builds a new player for every call
+	 * @throws IllegalArgumentException if the class does not exist or is not a usable Player
+	 */
+	public static Supplier<Player> forName(String className) {
+		Constructor<? extends Player> constructor;
+		try {
+			Class<?> c = Class.forName(className);
+			if (!Player.class.isAssignableFrom(c)) {
+				throw new IllegalArgumentException("PlayerFactory.forName() - " + className + " is not a Player");
+			}
+			constructor = c.asSubclass(Player.class).getConstructor();
+		}
+		catch (ClassNotFoundException | NoSuchMethodException e) {
+			throw new IllegalArgumentException("PlayerFactory.forName() - cannot construct " + className, e);
+		}
+		return () -> {
+			try {
+				return constructor.newInstance();
+			}
+			catch (ReflectiveOperationException e) {
+				throw new IllegalStateException("PlayerFactory - constructing " + className + " failed", e);
+			}
+		};
+	}
+}
@@ -0,0 +1,100 @@
+import java.util.Arrays;
+
+/**
+ * The tunable constants in Player.ask(), as an immutable integer vector.
+ *
+ * Entries 0-3 are the lookahead thresholds: while the lowest tableau value is t, Player starts
+ * hinting and playing value t + 2 once the tableau score reaches lookahead(t). Entries 4-8 are the
+ * careAboutFives switches for hints about values 1-5 (0 or 1).
+ */
+public class PlayerParams {
+	public static final int NUM_LOOKAHEADS = 4;
+	public static final int SIZE = NUM_LOOKAHEADS + Card.MAX_VALUE;
+
+	private static final int[] DEFAULTS = { 0, 8, 13, 18, 0, 0, 0, 0, 1 };
+	private static final int[] MIN = { 0, 0, 0, 0, 0, 0, 0, 0, 0 };
+	private static final int[] MAX = { 25, 25, 25, 25, 1, 1, 1, 1, 1 };
+
+	private final int[] vector;
+
+	/**
+	 * The values Player has always used.
+	 */
+	public PlayerParams() {
+		this(DEFAULTS);
+	}
+
+	/**
+	 * @param vector SIZE entries; each is clamped to its legal range.
+	 */
+	public PlayerParams(int[] vector) {
+		if (vector.length != SIZE) {
+			throw new IllegalArgumentException("PlayerParams() - expected " + SIZE + " values, got " + vector.length);
+		}
+		this.vector = new int[SIZE];
+		for (int i = 0; i < SIZE; i++) {
+			this.vector[i] = Math.max(MIN[i], Math.min(MAX[i], vector[i]));
+		}
+	}
+
+	/**
+	 * @param text Comma-separated values, as produced by toString().
+	 */
+	public static PlayerParams parse(String text) {
+		String[] parts = text.split(",");
+		int[] values = new int[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			values[i] = Integer.parseInt(parts[i].trim());
+		}
+		return new PlayerParams(values);
+	}
+
+	/**
+	 * @param tier The lowest value on the tableau, 0-3.
+	 * @return the tableau score at which to start on cards two above tier
+	 */
+	public int lookahead(int tier) {
+		return vector[tier];
+	}
+
+	/**
+	 * @param value The card value being hinted, 1-5.
+	 */
+	public boolean careAboutFives(int value) {
+		return vector[NUM_LOOKAHEADS + value - 1] != 0;
+	}
+
+	public int[] toVector() {
+		return vector.clone();
+	}
+
+	public static int min(int index) {
+		return MIN[index];
+	}
+
+	public static int max(int index) {
+		return MAX[index];
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return (o instanceof PlayerParams) && Arrays.equals(vector, ((PlayerParams) o).vector);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(vector);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < SIZE; i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append(vector[i]);
+		}
+		return sb.toString();
+	}
+}
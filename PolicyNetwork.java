@@ -0,0 +1,202 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * A small multilayer perceptron: fully connected layers with ReLU between them and raw scores out.
+ *
+ * Weights are stored input-major (weights[layer][i * outputs + j] connects input i to output j), so
+ * forward() is a series of "row += input * weightRow" loops over contiguous floats. The JIT turns
+ * those into SIMD instructions, and inputs that are zero, which one-hot features and ReLU make
+ * common, are skipped outright.
+ *
+ * File format, little-endian: magic, ObservationEncoder.VERSION, layer count L, the L + 1 layer
+ * widths, then each layer's weights and biases as floats.
+ */
+public class PolicyNetwork {
+	public static final int MAGIC = 0x504E4248; // "HBNP" read as little-endian
+
+	private final int[] widths;
+	private final float[][] weights;
+	private final float[][] biases;
+	private final int maxWidth;
+
+	/**
+	 * @param widths The input width, then each layer's output width.
+	 */
+	public PolicyNetwork(int[] widths, float[][] weights, float[][] biases) {
+		if (widths.length < 2 || weights.length != widths.length - 1 || biases.length != widths.length - 1) {
+			throw new IllegalArgumentException("PolicyNetwork - need one weight matrix and bias vector per layer");
+		}
+		int widest = 0;
+		for (int l = 0; l < weights.length; l++) {
+			if (weights[l].length != widths[l] * widths[l + 1] || biases[l].length != widths[l + 1]) {
+				throw new IllegalArgumentException("PolicyNetwork - layer " + l + " does not match its widths");
+			}
+			widest = Math.max(widest, widths[l + 1]);
+		}
+		this.widths = widths.clone();
+		this.weights = weights;
+		this.biases = biases;
+		this.maxWidth = widest;
+	}
+
+	/**
+	 * @return a network with He-initialized weights and zero biases, for testing the pipeline before training
+	 */
+	public static PolicyNetwork random(int[] widths, long seed) {
+		SplittableRandom rand = new SplittableRandom(seed);
+		float[][] weights = new float[widths.length - 1][];
+		float[][] biases = new float[widths.length - 1][];
+		for (int l = 0; l < weights.length; l++) {
+			weights[l] = new float[widths[l] * widths[l + 1]];
+			biases[l] = new float[widths[l + 1]];
+			double scale = Math.sqrt(2.0 / widths[l]);
+			for (int i = 0; i < weights[l].length; i++) {
+				// Sum of uniforms, a cheap near-Gaussian with unit variance.
+				double g = rand.nextDouble() + rand.nextDouble() + rand.nextDouble() - 1.5;
+				weights[l][i] = (float) (g * 2 * scale);
+			}
+		}
+		return new PolicyNetwork(widths, weights, biases);
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the file is not a network for this ObservationEncoder layout
+	 */
+	public static PolicyNetwork load(Path file) throws IOException {
+		ByteBuffer b = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+		if (b.remaining() < 12 || b.getInt() != MAGIC) {
+			throw new IllegalArgumentException("PolicyNetwork.load() - " + file + " is not a policy network");
+		}
+		ObservationEncoder.checkVersion(b.getInt());
+		int layers = b.getInt();
+		if (layers < 1 || layers > 64) {
+			throw new IllegalArgumentException("PolicyNetwork.load() - bad layer count " + layers);
+		}
+		int[] widths = new int[layers + 1];
+		for (int l = 0; l <= layers; l++) {
+			widths[l] = b.getInt();
+		}
+		float[][] weights = new float[layers][];
+		float[][] biases = new float[layers][];
+		for (int l = 0; l < layers; l++) {
+			weights[l] = new float[widths[l] * widths[l + 1]];
+			biases[l] = new float[widths[l + 1]];
+			b.asFloatBuffer().get(weights[l]);
+			b.position(b.position() + 4 * weights[l].length);
+			b.asFloatBuffer().get(biases[l]);
+			b.position(b.position() + 4 * biases[l].length);
+		}
+		return new PolicyNetwork(widths, weights, biases);
+	}
+
+	public void save(Path file) throws IOException {
+		int floats = 0;
+		for (int l = 0; l < weights.length; l++) {
+			floats += weights[l].length + biases[l].length;
+		}
+		ByteBuffer b = ByteBuffer.allocate(4 * (3 + widths.length + floats)).order(ByteOrder.LITTLE_ENDIAN);
+		b.putInt(MAGIC).putInt(ObservationEncoder.VERSION).putInt(weights.length);
+		for (int w : widths) {
+			b.putInt(w);
+		}
+		for (int l = 0; l < weights.length; l++) {
+			b.asFloatBuffer().put(weights[l]);
+			b.position(b.position() + 4 * weights[l].length);
+			b.asFloatBuffer().put(biases[l]);
+			b.position(b.position() + 4 * biases[l].length);
+		}
+		b.flip();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (b.hasRemaining()) {
+				channel.write(b);
+			}
+		}
+	}
+
+	public int inputSize() {
+		return widths[0];
+	}
+
+	public int outputSize() {
+		return widths[widths.length - 1];
+	}
+
+	/**
+	 * @return the widest layer output, which sizes the scratch arrays forward() needs per batch row
+	 */
+	public int maxWidth() {
+		return maxWidth;
+	}
+
+	/**
+	 * Runs batch rows through the network at once, so each weight row is loaded once per batch rather
+	 * than once per row.
+	 * @param in batch rows of inputSize() floats.
+	 * @param out Receives batch rows of outputSize() scores.
+	 * @param scratchA Working space of at least batch * maxWidth() floats.
+	 * @param scratchB Working space of at least batch * maxWidth() floats.
+	 */
+	public void forward(float[] in, int batch, float[] out, float[] scratchA, float[] scratchB) {
+		float[] cur = in;
+		for (int l = 0; l < weights.length; l++) {
+			int inWidth = widths[l];
+			int outWidth = widths[l + 1];
+			boolean last = (l == weights.length - 1);
+			float[] next = last ? out : (l % 2 == 0) ? scratchA : scratchB;
+			float[] w = weights[l];
+			float[] bias = biases[l];
+			for (int r = 0; r < batch; r++) {
+				System.arraycopy(bias, 0, next, r * outWidth, outWidth);
+			}
+			// Input-outer, row-inner: one weight row stays in cache while every batch row uses it.
+			for (int i = 0; i < inWidth; i++) {
+				int wRow = i * outWidth;
+				for (int r = 0; r < batch; r++) {
+					float a = cur[r * inWidth + i];
+					if (a == 0.0f) {
+						continue;
+					}
+					int outRow = r * outWidth;
+					for (int j = 0; j < outWidth; j++) {
+						next[outRow + j] += a * w[wRow + j];
+					}
+				}
+			}
+			if (!last) {
+				for (int j = 0; j < batch * outWidth; j++) {
+					next[j] = Math.max(0.0f, next[j]);
+				}
+			}
+			cur = next;
+		}
+	}
+
+	/**
+	 * Usage: policy &lt;outputFile&gt; &lt;seed&gt; [&lt;hiddenWidth&gt; ...]
+	 * Writes a randomly initialized network sized for ObservationEncoder and ActionCodec.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.out.println("Usage: policy <outputFile> <seed> [<hiddenWidth> ...]");
+			return;
+		}
+		int[] widths = new int[args.length];
+		widths[0] = ObservationEncoder.SIZE;
+		for (int i = 2; i < args.length; i++) {
+			widths[i - 1] = Integer.parseInt(args[i]);
+		}
+		widths[widths.length - 1] = ActionCodec.NUM_ACTIONS;
+		PolicyNetwork net = random(widths, Long.parseLong(args[1]));
+		net.save(Path.of(args[0]));
+		System.out.println("Wrote a random " + Arrays.toString(widths) + " policy to " + args[0]);
+	}
+}
@@ -0,0 +1,79 @@
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A Player that picks uniformly among the legal actions and tracks nothing, so games between two of
+ * them cost little beyond Hanabi itself. Used by Soak to measure the engine's speed ceiling.
+ *
+ * Hints are legal for every color and value in the partner's hand, found as two bit masks in one
+ * pass; the action strings are built once, so ask() allocates nothing.
+ */
+public class RandomLegalPlayer extends Player {
+	private static final String[] ACTIONS = new String[ActionCodec.NUM_ACTIONS];
+
+	static {
+		for (int code = 0; code < ActionCodec.NUM_ACTIONS; code++) {
+			ACTIONS[code] = ActionCodec.decode(code);
+		}
+	}
+
+	@Override
+	public String ask(int yourHandSize, Hand partnerHand, Board boardState) {
+		int colors = 0;
+		int values = 0;
+		if (boardState.numHints > 0) {
+			for (int i = 0; i < partnerHand.size(); i++) {
+				colors |= 1 << partnerHand.colorAt(i);
+				values |= 1 << (partnerHand.valueAt(i) - Card.MIN_VALUE);
+			}
+		}
+		int legal = 2 * yourHandSize + Integer.bitCount(colors) + Integer.bitCount(values);
+		int pick = ThreadLocalRandom.current().nextInt(legal);
+		if (pick < yourHandSize) {
+			return ACTIONS[ActionCodec.PLAY + pick];
+		}
+		pick -= yourHandSize;
+		if (pick < yourHandSize) {
+			return ACTIONS[ActionCodec.DISCARD + pick];
+		}
+		pick -= yourHandSize;
+		if (pick < Integer.bitCount(colors)) {
+			return ACTIONS[ActionCodec.COLORHINT + nthBit(colors, pick)];
+		}
+		return ACTIONS[ActionCodec.NUMBERHINT + nthBit(values, pick - Integer.bitCount(colors))];
+	}
+
+	private static int nthBit(int mask, int n) {
+		for (int i = 0; i < n; i++) {
+			mask &= mask - 1;
+		}
+		return Integer.numberOfTrailingZeros(mask);
+	}
+
+	@Override
+	public void tellPartnerDiscard(Hand startHand, Card discard, int disIndex, Card draw, int drawIndex,
+			Hand finalHand, Board boardState) {
+	}
+
+	@Override
+	public void tellYourDiscard(Card discard, int disIndex, int drawIndex, boolean drawSucceeded, Board boardState) {
+	}
+
+	@Override
+	public void tellPartnerPlay(Hand startHand, Card play, int playIndex, Card draw, int drawIndex,
+			Hand finalHand, boolean wasLegalPlay, Board boardState) {
+	}
+
+	@Override
+	public void tellYourPlay(Card play, int playIndex, int drawIndex, boolean drawSucceeded,
+			boolean wasLegalPlay, Board boardState) {
+	}
+
+	@Override
+	public void tellColorHint(int color, ArrayList<Integer> indices, Hand partnerHand, Board boardState) {
+	}
+
+	@Override
+	public void tellNumberHint(int number, ArrayList<Integer> indices, Hand partnerHand, Board boardState) {
+	}
+}
@@ -0,0 +1,120 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A Player that writes a DatasetFormat record of what it saw and what it chose at every ask().
+ *
+ * Both seats of a game share one Recorder. The game's final score is not known until it ends, so the
+ * generator calls Recorder.finishGame() to fill it into that game's records.
+ */
+public class RecordingPlayer extends Player {
+	private final Recorder recorder;
+	private final int seat;
+
+	/**
+	 * Collects records for whole games in a reusable little-endian buffer.
+	 */
+	public static class Recorder {
+		public static final int MAX_TURNS = 128; // more than any game can take
+
+		private final ByteBuffer out;
+		private int game;
+		private int gameStart;
+		private int turn;
+
+		/**
+		 * @param capacityRecords How many records fit before the buffer must be drained; at least MAX_TURNS.
+		 */
+		public Recorder(int capacityRecords) {
+			out = ByteBuffer.allocate(Math.max(MAX_TURNS, capacityRecords) * DatasetFormat.RECORD_BYTES)
+					.order(ByteOrder.LITTLE_ENDIAN);
+		}
+
+		public void startGame(int game) {
+			this.game = game;
+			gameStart = out.position();
+			turn = 0;
+		}
+
+		public void finishGame(int finalScore) {
+			for (int r = gameStart; r < out.position(); r += DatasetFormat.RECORD_BYTES) {
+				out.put(r + DatasetFormat.FINAL_SCORE, (byte) finalScore);
+			}
+		}
+
+		/**
+		 * Drops the records of the current game, for games that end in an error.
+		 */
+		public void abandonGame() {
+			out.position(gameStart);
+		}
+
+		public boolean hasRoomForGame() {
+			return out.remaining() >= MAX_TURNS * DatasetFormat.RECORD_BYTES;
+		}
+
+		public int records() {
+			return out.position() / DatasetFormat.RECORD_BYTES;
+		}
+
+		/**
+		 * @return the buffer, flipped for writing out; call clear() once it has been written
+		 */
+		public ByteBuffer drain() {
+			out.flip();
+			return out;
+		}
+
+		public void clear() {
+			out.clear();
+		}
+	}
+
+	public RecordingPlayer(Recorder recorder, int seat) {
+		this.recorder = recorder;
+		this.seat = seat;
+	}
+
+	@Override
+	public String ask(int yourHandSize, Hand partnerHand, Board boardState) {
+		ByteBuffer out = recorder.out;
+		int base = out.position();
+		for (int i = 0; i < DatasetFormat.RECORD_BYTES; i += 8) {
+			out.putLong(base + i, 0); // the buffer is reused; clear reserved bytes
+		}
+		out.putInt(base + DatasetFormat.GAME, recorder.game);
+		out.putShort(base + DatasetFormat.TURN, (short) recorder.turn++);
+		out.put(base + DatasetFormat.SEAT, (byte) seat);
+		out.put(base + DatasetFormat.HAND_SIZE, (byte) yourHandSize);
+		out.put(base + DatasetFormat.HINTS, (byte) boardState.numHints);
+		out.put(base + DatasetFormat.FUSES, (byte) boardState.numFuses);
+		out.put(base + DatasetFormat.DECK, (byte) boardState.deckSize);
+		int hintFlags = getHintFlags(); // read before ask() updates it
+		for (int i = 0; i < 5; i++) {
+			out.put(base + DatasetFormat.TABLEAU + i, boardState.tableau.get(i).byteValue());
+			int card = DatasetFormat.EMPTY_CARD;
+			if (i < partnerHand.size()) {
+				Card c = partnerHand.get(i);
+				card = CardKnowledge.bitOf(c.color, c.value);
+			}
+			out.put(base + DatasetFormat.PARTNER_CARDS + i, (byte) card);
+			CardKnowledge k = getOurKnowledge(i);
+			int flags = k.hasBeenHinted ? DatasetFormat.FLAG_HINTED : 0;
+			if ((hintFlags & (1 << i)) != 0) {
+				flags |= DatasetFormat.FLAG_COLOR_HINTED_PARTNER;
+			}
+			if ((hintFlags & (1 << (i + 5))) != 0) {
+				flags |= DatasetFormat.FLAG_NUMBER_HINTED_PARTNER;
+			}
+			out.put(base + DatasetFormat.SLOT_FLAGS + i, (byte) flags);
+			out.putInt(base + DatasetFormat.KNOWLEDGE + 4 * i, k.optionMask());
+		}
+		out.putLong(base + DatasetFormat.DISCARD_COUNTS, boardState.packedDiscards());
+
+		String action = super.ask(yourHandSize, partnerHand, boardState);
+		out.put(base + DatasetFormat.ACTION, (byte) ActionCodec.encode(action));
+		out.put(base + DatasetFormat.DRAW_INDEX, (byte) ActionCodec.drawIndex(action));
+		out.position(base + DatasetFormat.RECORD_BYTES);
+		return action;
+	}
+}
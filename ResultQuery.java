@@ -0,0 +1,201 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Summarizes a ResultStore, optionally restricted to the rows matching some filters, by scanning
+ * row ranges in parallel and merging the partial summaries.
+ *
+ * Filters are column, operator and number with no spaces, such as score=0, turns>=60 or end=fuses
+ * (end also takes the names in ResultStore.END_NAMES); a row must match all of them.
+ */
+public class ResultQuery {
+	private static final int CHUNK_ROWS = 1 << 22;
+	private static final Pattern FILTER = Pattern.compile("(\\w+)(<=|>=|!=|=|<|>)(\\w+)");
+
+	private final int[] columns;
+	private final String[] ops;
+	private final long[] values;
+
+	/**
+	 * @throws IllegalArgumentException if a filter is malformed
+	 */
+	public ResultQuery(List<String> filters) {
+		columns = new int[filters.size()];
+		ops = new String[filters.size()];
+		values = new long[filters.size()];
+		for (int i = 0; i < columns.length; i++) {
+			Matcher m = FILTER.matcher(filters.get(i));
+			if (!m.matches() || (columns[i] = ResultStore.column(m.group(1))) < 0) {
+				throw new IllegalArgumentException("ResultQuery - bad filter " + filters.get(i));
+			}
+			ops[i] = m.group(2);
+			values[i] = parseValue(columns[i], m.group(3));
+		}
+	}
+
+	private static long parseValue(int column, String text) {
+		if (column == ResultStore.END) {
+			for (int e = 0; e < ResultStore.END_NAMES.length; e++) {
+				if (ResultStore.END_NAMES[e].equals(text)) {
+					return e;
+				}
+			}
+		}
+		try {
+			return Long.parseLong(text);
+		}
+		catch (NumberFormatException e) {
+			throw new IllegalArgumentException("ResultQuery - " + text + " is not a number", e);
+		}
+	}
+
+	private boolean matches(ResultStore store, long row) {
+		for (int i = 0; i < columns.length; i++) {
+			long v = store.get(columns[i], row);
+			boolean ok = switch (ops[i]) {
+				case "=" -> v == values[i];
+				case "!=" -> v != values[i];
+				case "<" -> v < values[i];
+				case "<=" -> v <= values[i];
+				case ">" -> v > values[i];
+				default -> v >= values[i];
+			};
+			if (!ok) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Counts, sums and histograms over the matching rows. Not thread-safe; one per scanned range.
+	 */
+	public static class Summary {
+		long rows;
+		final long[] sums = new long[ResultStore.NUM_COLUMNS];
+		final long[] squares = new long[ResultStore.NUM_COLUMNS];
+		final long[] scoreCounts = new long[26];
+		final long[] endCounts = new long[ResultStore.END_NAMES.length];
+
+		void add(ResultStore store, long row) {
+			rows++;
+			for (int col = ResultStore.SCORE; col < ResultStore.NUM_COLUMNS; col++) {
+				long v = store.get(col, row);
+				sums[col] += v;
+				squares[col] += v * v;
+			}
+			scoreCounts[(int) Math.min(25, store.get(ResultStore.SCORE, row))]++;
+			endCounts[(int) Math.min(endCounts.length - 1, store.get(ResultStore.END, row))]++;
+		}
+
+		void merge(Summary other) {
+			rows += other.rows;
+			for (int col = 0; col < sums.length; col++) {
+				sums[col] += other.sums[col];
+				squares[col] += other.squares[col];
+			}
+			for (int s = 0; s < scoreCounts.length; s++) {
+				scoreCounts[s] += other.scoreCounts[s];
+			}
+			for (int e = 0; e < endCounts.length; e++) {
+				endCounts[e] += other.endCounts[e];
+			}
+		}
+
+		public long getRows() {
+			return rows;
+		}
+
+		public double mean(int col) {
+			return (rows == 0) ? 0.0 : sums[col] / (double) rows;
+		}
+
+		public double stdDev(int col) {
+			if (rows < 2) {
+				return 0.0;
+			}
+			double m = mean(col);
+			return Math.sqrt(Math.max(0.0, (squares[col] - rows * m * m) / (rows - 1)));
+		}
+
+		public String format() {
+			StringBuilder sb = new StringBuilder();
+			sb.append(String.format("%d games%n", rows));
+			for (int col = ResultStore.SCORE; col < ResultStore.END; col++) {
+				sb.append(String.format("%-8s mean %7.3f  sd %6.3f%n", ResultStore.NAMES[col], mean(col), stdDev(col)));
+			}
+			sb.append("end     ");
+			for (int e = 1; e < endCounts.length; e++) {
+				sb.append(String.format(" %s %.1f%%", ResultStore.END_NAMES[e], (rows == 0) ? 0.0 : 100.0 * endCounts[e] / rows));
+			}
+			sb.append("\nscore   ");
+			for (int s = 0; s < scoreCounts.length; s++) {
+				if (scoreCounts[s] > 0) {
+					sb.append(String.format(" %d:%d", s, scoreCounts[s]));
+				}
+			}
+			sb.append('\n');
+			return sb.toString();
+		}
+	}
+
+	public Summary scan(ResultStore store, long from, long to) {
+		Summary summary = new Summary();
+		for (long row = from; row < to; row++) {
+			if (matches(store, row)) {
+				summary.add(store, row);
+			}
+		}
+		return summary;
+	}
+
+	/**
+	 * Scans the whole store in CHUNK_ROWS pieces across the pool.
+	 */
+	public Summary run(ResultStore store, ExecutorService pool) {
+		List<Future<Summary>> parts = new ArrayList<Future<Summary>>();
+		for (long from = 0; from < store.size(); from += CHUNK_ROWS) {
+			final long start = from;
+			final long end = Math.min(store.size(), from + CHUNK_ROWS);
+			parts.add(pool.submit(() -> scan(store, start, end)));
+		}
+		Summary total = new Summary();
+		try {
+			for (Future<Summary> part : parts) {
+				total.merge(part.get());
+			}
+		}
+		catch (InterruptedException | ExecutionException e) {
+			throw new IllegalStateException("ResultQuery.run() - a scan failed", e);
+		}
+		return total;
+	}
+
+	/**
+	 * Usage: query &lt;storeDir&gt; [&lt;filter&gt; ...]
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.out.println("Usage: query <storeDir> [<filter> ...]   e.g. score=0 turns>=60 end=fuses");
+			return;
+		}
+		ResultQuery query = new ResultQuery(List.of(args).subList(1, args.length));
+		ExecutorService pool = GameBatch.newPool();
+		long start = System.nanoTime();
+		try (ResultStore store = new ResultStore(Path.of(args[0]))) {
+			Summary s = query.run(store, pool);
+			System.out.print(s.format());
+			System.out.printf("Scanned %d rows in %.2f s%n", store.size(), (System.nanoTime() - start) / 1e9);
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,203 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Per-game results stored column by column: a directory holding one fixed-width little-endian file
+ * per column, so row i of a column is at byte i * width, and a header file that holds the row count.
+ *
+ * A query that needs two columns reads only those two files, straight from the page cache through
+ * memory mapping, so scanning 100M games takes a few hundred MB of I/O and almost no heap. Rows are
+ * written by an Appender and become visible to readers when the header is updated, which happens
+ * every WINDOW_ROWS rows and on close.
+ *
+ * Header (results.meta): magic (int), version (int), column count (int), reserved (int), row count (long).
+ */
+public class ResultStore implements AutoCloseable {
+	public static final int MAGIC = 0x52424E48; // "HNBR" read as little-endian
+	public static final int VERSION = 1;
+	public static final int HEADER_BYTES = 64;
+
+	public static final int SEED = 0;			// long: the game's seed
+	public static final int SCORE = 1;			// byte
+	public static final int TURNS = 2;			// short: moves made
+	public static final int FUSES = 3;			// byte: fuses lost
+	public static final int HINTS_WASTED = 4;	// byte: see Hanabi.getHintsWasted()
+	public static final int END = 5;			// byte: Hanabi.END_FUSES, END_DECK or END_PERFECT
+	public static final int NUM_COLUMNS = 6;
+
+	public static final String[] NAMES = { "seed", "score", "turns", "fuses", "wasted", "end" };
+	public static final String[] END_NAMES = { "none", "fuses", "deck", "perfect" };
+	private static final int[] WIDTHS = { 8, 1, 2, 1, 1, 1 };
+
+	private static final int SEGMENT_BITS = 27; // rows per mapping; a seed segment is 1 GB
+	private static final long SEGMENT_ROWS = 1L << SEGMENT_BITS;
+
+	private final FileChannel[] channels = new FileChannel[NUM_COLUMNS];
+	private final MappedByteBuffer[][] segments = new MappedByteBuffer[NUM_COLUMNS][];
+	private final long rows;
+
+	/**
+	 * Maps a store for reading. Rows appended after this are not seen.
+	 * @throws IllegalArgumentException if dir does not hold a store this version reads
+	 */
+	public ResultStore(Path dir) throws IOException {
+		rows = readCount(dir);
+		for (int col = 0; col < NUM_COLUMNS; col++) {
+			channels[col] = FileChannel.open(columnFile(dir, col), StandardOpenOption.READ);
+			long bytes = rows * WIDTHS[col];
+			if (bytes > channels[col].size()) {
+				close();
+				throw new IllegalArgumentException("ResultStore - " + NAMES[col] + " column is shorter than the header says");
+			}
+			segments[col] = new MappedByteBuffer[(int) ((rows + SEGMENT_ROWS - 1) >>> SEGMENT_BITS)];
+			for (int s = 0; s < segments[col].length; s++) {
+				long first = (long) s << SEGMENT_BITS;
+				segments[col][s] = channels[col].map(FileChannel.MapMode.READ_ONLY, first * WIDTHS[col],
+						Math.min(SEGMENT_ROWS, rows - first) * WIDTHS[col]);
+				segments[col][s].order(ByteOrder.LITTLE_ENDIAN);
+			}
+		}
+	}
+
+	public long size() {
+		return rows;
+	}
+
+	/**
+	 * @return column col of row, sign-extended for the seed and zero-extended otherwise
+	 */
+	public long get(int col, long row) {
+		MappedByteBuffer b = segments[col][(int) (row >>> SEGMENT_BITS)];
+		int at = (int) (row & (SEGMENT_ROWS - 1)) * WIDTHS[col];
+		return switch (WIDTHS[col]) {
+			case 8 -> b.getLong(at);
+			case 2 -> b.getShort(at) & 0xFFFF;
+			default -> b.get(at) & 0xFF;
+		};
+	}
+
+	/**
+	 * @return the column whose name is name, or -1
+	 */
+	public static int column(String name) {
+		for (int col = 0; col < NUM_COLUMNS; col++) {
+			if (NAMES[col].equals(name)) {
+				return col;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public void close() throws IOException {
+		for (FileChannel c : channels) {
+			if (c != null) {
+				c.close();
+			}
+		}
+	}
+
+	private static Path columnFile(Path dir, int col) {
+		return dir.resolve(NAMES[col] + ".col");
+	}
+
+	private static Path metaFile(Path dir) {
+		return dir.resolve("results.meta");
+	}
+
+	private static long readCount(Path dir) throws IOException {
+		ByteBuffer header = ByteBuffer.wrap(Files.readAllBytes(metaFile(dir))).order(ByteOrder.LITTLE_ENDIAN);
+		if (header.capacity() < HEADER_BYTES || header.getInt(0) != MAGIC || header.getInt(4) != VERSION
+				|| header.getInt(8) != NUM_COLUMNS) {
+			throw new IllegalArgumentException("ResultStore - " + dir + " is not a version " + VERSION + " result store");
+		}
+		return header.getLong(16);
+	}
+
+	/**
+	 * Appends rows to a store, creating it if need be. Each column is written through a mapped
+	 * window of WINDOW_ROWS rows past the end of its file; the files grow a window at a time and are
+	 * trimmed to the row count on close. Not thread-safe.
+	 */
+	public static class Appender implements AutoCloseable {
+		public static final int WINDOW_ROWS = 1 << 16;
+
+		private final FileChannel meta;
+		private final FileChannel[] channels = new FileChannel[NUM_COLUMNS];
+		private final MappedByteBuffer[] windows = new MappedByteBuffer[NUM_COLUMNS];
+		private long rows;
+		private long windowStart;
+
+		public Appender(Path dir) throws IOException {
+			Files.createDirectories(dir);
+			rows = Files.exists(metaFile(dir)) ? readCount(dir) : 0;
+			meta = FileChannel.open(metaFile(dir), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+			for (int col = 0; col < NUM_COLUMNS; col++) {
+				channels[col] = FileChannel.open(columnFile(dir, col), StandardOpenOption.CREATE, StandardOpenOption.READ,
+						StandardOpenOption.WRITE);
+			}
+			writeCount();
+			mapWindow();
+		}
+
+		public long size() {
+			return rows;
+		}
+
+		public void append(long seed, int score, int turns, int fuses, int hintsWasted, int end) throws IOException {
+			if (rows == windowStart + WINDOW_ROWS) {
+				writeCount();
+				mapWindow();
+			}
+			int i = (int) (rows - windowStart);
+			windows[SEED].putLong(i * 8, seed);
+			windows[SCORE].put(i, (byte) score);
+			windows[TURNS].putShort(i * 2, (short) turns);
+			windows[FUSES].put(i, (byte) fuses);
+			windows[HINTS_WASTED].put(i, (byte) hintsWasted);
+			windows[END].put(i, (byte) end);
+			rows++;
+		}
+
+		/**
+		 * Appends a game that play() has returned from.
+		 */
+		public void append(long seed, Hanabi game, int score) throws IOException {
+			append(seed, score, game.getTurns(), game.getFusesUsed(), game.getHintsWasted(), game.getEndReason());
+		}
+
+		private void mapWindow() throws IOException {
+			windowStart = rows;
+			for (int col = 0; col < NUM_COLUMNS; col++) {
+				windows[col] = channels[col].map(FileChannel.MapMode.READ_WRITE, windowStart * WIDTHS[col],
+						(long) WINDOW_ROWS * WIDTHS[col]);
+				windows[col].order(ByteOrder.LITTLE_ENDIAN);
+			}
+		}
+
+		private void writeCount() throws IOException {
+			ByteBuffer b = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			b.putInt(MAGIC).putInt(VERSION).putInt(NUM_COLUMNS).putInt(0).putLong(rows);
+			b.rewind();
+			meta.write(b, 0);
+		}
+
+		@Override
+		public void close() throws IOException {
+			for (int col = 0; col < NUM_COLUMNS; col++) {
+				windows[col].force();
+				windows[col] = null;
+				channels[col].truncate(rows * WIDTHS[col]);
+				channels[col].close();
+			}
+			writeCount();
+			meta.close();
+		}
+	}
+}
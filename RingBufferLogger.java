@@ -0,0 +1,244 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A structured game trace that keeps formatting and I/O off the game threads.
+ *
+ * Each event is packed into two longs and published into a lock-free multi-producer ring buffer.
+ * A background thread drains the ring in batches, formats one line per event, and writes each batch
+ * with a single call. Producers only wait if the ring is full, so nothing is dropped.
+ *
+ * Get a listener for each game from newGame(), and close() the logger once all games are done.
+ */
+public class RingBufferLogger implements AutoCloseable {
+	private static final int TURN = 0;
+	private static final int PLAY = 1;
+	private static final int MISPLAY = 2;
+	private static final int DISCARD = 3;
+	private static final int HINT = 4;
+	private static final int END = 5;
+
+	private static final int MAX_BATCH = 4096;
+
+	private final int mask;
+	private final long[] headers;
+	private final long[] payloads;
+	private final AtomicLongArray published;	// the sequence number last written to each slot
+	private final AtomicLong claimed = new AtomicLong();
+	private volatile long consumed;				// every sequence below this has been written out
+
+	private final Writer out;
+	private final Thread drainer;
+	private final AtomicLong nextGameId = new AtomicLong();
+	private final LongAdder producerStalls = new LongAdder();
+	private volatile boolean closing;
+	private IOException writeFailure;
+
+	/**
+	 * @param out Where the formatted trace goes. It is flushed after each batch and closed by close().
+	 * @param capacity The number of events the ring holds; rounded up to a power of two.
+	 */
+	public RingBufferLogger(Writer out, int capacity) {
+		int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+		mask = size - 1;
+		headers = new long[size];
+		payloads = new long[size];
+		published = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) {
+			published.set(i, -1);
+		}
+		this.out = out;
+		drainer = new Thread(this::drain, "hanabi-trace");
+		drainer.setDaemon(true);
+		drainer.start();
+	}
+
+	/**
+	 * @return a listener that logs one game's events under a new game id
+	 */
+	public GameListener newGame() {
+		final long gameId = nextGameId.getAndIncrement();
+		return new GameListener() {
+			@Override
+			public void onTurnStart(int turn, int player, int numHints, int numFuses, int deckSize, int tableauScore) {
+				publish(header(TURN, gameId, turn, player), numHints | numFuses << 8 | deckSize << 16 | tableauScore << 24);
+			}
+
+			@Override
+			public void onPlay(int turn, int player, Card card, int index, boolean drew) {
+				publish(header(PLAY, gameId, turn, player), cardPayload(card, index, drew));
+			}
+
+			@Override
+			public void onMisplay(int turn, int player, Card card, int index, boolean drew, int fusesLeft) {
+				publish(header(MISPLAY, gameId, turn, player), cardPayload(card, index, drew) | (long) fusesLeft << 32);
+			}
+
+			@Override
+			public void onDiscard(int turn, int player, Card card, int index, boolean drew) {
+				publish(header(DISCARD, gameId, turn, player), cardPayload(card, index, drew));
+			}
+
+			@Override
+			public void onHint(int turn, int player, boolean isColor, int hinted, ArrayList<Integer> indices) {
+				int touched = 0;
+				for (int i = 0; i < indices.size(); i++) {
+					touched |= 1 << indices.get(i);
+				}
+				publish(header(HINT, gameId, turn, player), (isColor ? 1 : 0) | hinted << 8 | touched << 16);
+			}
+
+			@Override
+			public void onGameEnd(int score, int turns, boolean outOfFuses) {
+				publish(header(END, gameId, turns, 0), score | (outOfFuses ? 1 << 8 : 0));
+			}
+		};
+	}
+
+	// Header layout: type in bits 0-3, player in bit 4, turn in bits 8-23, game id from bit 24.
+	private static long header(int type, long gameId, int turn, int player) {
+		return type | player << 4 | (long) (turn & 0xFFFF) << 8 | gameId << 24;
+	}
+
+	private static long cardPayload(Card card, int index, boolean drew) {
+		return card.color | card.value << 8 | index << 16 | (drew ? 1 << 24 : 0);
+	}
+
+	private void publish(long header, long payload) {
+		long seq = claimed.getAndIncrement();
+		if (seq - consumed >= headers.length) {
+			producerStalls.increment();
+			while (seq - consumed >= headers.length) {
+				Thread.onSpinWait();
+			}
+		}
+		int slot = (int) seq & mask;
+		headers[slot] = header;
+		payloads[slot] = payload;
+		published.set(slot, seq); // volatile write publishes the two plain writes above
+	}
+
+	private void drain() {
+		StringBuilder batch = new StringBuilder(1 << 16);
+		long next = 0;
+		while (true) {
+			int count = 0;
+			while (count < MAX_BATCH && published.get((int) next & mask) == next) {
+				int slot = (int) next & mask;
+				format(batch, headers[slot], payloads[slot]);
+				next++;
+				count++;
+			}
+			if (count > 0) {
+				consumed = next;
+				write(batch);
+				batch.setLength(0);
+			}
+			else if (closing && next == claimed.get()) {
+				return;
+			}
+			else {
+				LockSupport.parkNanos(100_000);
+			}
+		}
+	}
+
+	private void write(StringBuilder batch) {
+		if (writeFailure != null) {
+			return;
+		}
+		try {
+			out.append(batch);
+			out.flush();
+		}
+		catch (IOException e) {
+			writeFailure = e;
+		}
+	}
+
+	private static void format(StringBuilder sb, long header, long payload) {
+		int type = (int) (header & 0xF);
+		int player = (int) (header >>> 4) & 1;
+		int turn = (int) (header >>> 8) & 0xFFFF;
+		long gameId = header >>> 24;
+		sb.append("game=").append(gameId);
+		if (type == END) {
+			sb.append(" END turns=").append(turn).append(" score=").append(payload & 0xFF);
+			if ((payload & (1 << 8)) != 0) {
+				sb.append(" fuses=out");
+			}
+			sb.append('\n');
+			return;
+		}
+		sb.append(" turn=").append(turn).append(" player=").append(player);
+		switch (type) {
+			case TURN -> sb.append(" TURN hints=").append(payload & 0xFF)
+					.append(" fuses=").append((payload >>> 8) & 0xFF)
+					.append(" deck=").append((payload >>> 16) & 0xFF)
+					.append(" score=").append((payload >>> 24) & 0xFF);
+			case PLAY, MISPLAY, DISCARD -> {
+				sb.append(type == PLAY ? " PLAY " : type == MISPLAY ? " MISPLAY " : " DISCARD ")
+						.append(Colors.suitColor((int) (payload & 0xFF))).append(' ').append((payload >>> 8) & 0xFF)
+						.append(" index=").append((payload >>> 16) & 0xFF);
+				if ((payload & (1 << 24)) == 0) {
+					sb.append(" nodraw");
+				}
+				if (type == MISPLAY) {
+					sb.append(" fuses=").append(payload >>> 32);
+				}
+			}
+			case HINT -> {
+				int hinted = (int) (payload >>> 8) & 0xFF;
+				if ((payload & 1) != 0) {
+					sb.append(" COLORHINT ").append(Colors.suitColor(hinted));
+				}
+				else {
+					sb.append(" NUMBERHINT ").append(hinted);
+				}
+				sb.append(" indices=");
+				int touched = (int) (payload >>> 16) & 0xFF;
+				char separator = '[';
+				for (int i = 0; touched != 0; i++, touched >>>= 1) {
+					if ((touched & 1) != 0) {
+						sb.append(separator).append(i);
+						separator = ',';
+					}
+				}
+				sb.append(']');
+			}
+			default -> sb.append(" UNKNOWN");
+		}
+		sb.append('\n');
+	}
+
+	/**
+	 * @return how many times a game thread found the ring full and had to wait
+	 */
+	public long getProducerStalls() {
+		return producerStalls.sum();
+	}
+
+	/**
+	 * Writes out everything published so far, stops the background thread, and closes the writer.
+	 * @throws IOException if any batch failed to write
+	 */
+	@Override
+	public void close() throws IOException {
+		closing = true;
+		try {
+			drainer.join();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		out.close();
+		if (writeFailure != null) {
+			throw writeFailure;
+		}
+	}
+}
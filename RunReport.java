@@ -0,0 +1,178 @@
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wall time, throughput, allocation and GC figures for one simulation run.
+ *
+ * A run calls begin() before its first game and finish() after its last, and hands the report to
+ * whatever plays its games, which calls gameFinished() as each game ends. Runs that overlap in one
+ * JVM each count only their own games. The first tenth of the expected games counts
+ * as warm-up, so the report shows how much faster the JIT-compiled steady state is. Allocation is
+ * the sum of the per-thread allocation counters of every thread alive at finish(), so finish()
+ * must run before the pool shuts down. GC figures are the change in each GarbageCollectorMXBean's
+ * collection count and time; for concurrent collectors the time is not all pause.
+ *
+ * format() gives the human-readable report. With -Dhanabi.runReport=file, finish() also appends
+ * the report to that file as one line of JSON, so runs can be compared over time.
+ */
+public class RunReport {
+	public static final String JSON_FILE = System.getProperty("hanabi.runReport");
+
+	private static final com.sun.management.ThreadMXBean THREADS =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	private final String name;
+	private final long warmupGames;
+	private final long startNanos;
+	private final long startMillis;
+	private final Map<Long, Long> startBytes = new HashMap<Long, Long>();
+	private final Map<String, long[]> startGc = new HashMap<String, long[]>();
+	private final AtomicLong games = new AtomicLong();
+	private volatile long warmupEndNanos;
+
+	private long endNanos;
+	private long allocatedBytes;
+	private int threadsCounted;
+	private final Map<String, long[]> gcDelta = new HashMap<String, long[]>();
+
+	private RunReport(String name, long expectedGames) {
+		this.name = name;
+		this.warmupGames = Math.max(1, expectedGames / 10);
+		THREADS.setThreadAllocatedMemoryEnabled(true);
+		for (long id : THREADS.getAllThreadIds()) {
+			startBytes.put(id, THREADS.getThreadAllocatedBytes(id));
+		}
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			startGc.put(gc.getName(), new long[] { gc.getCollectionCount(), gc.getCollectionTime() });
+		}
+		startMillis = System.currentTimeMillis();
+		startNanos = System.nanoTime();
+	}
+
+	/**
+	 * Starts measuring a run.
+	 * @param expectedGames Games the run will play, which sets the warm-up length.
+	 */
+	public static RunReport begin(String name, long expectedGames) {
+		return new RunReport(name, expectedGames);
+	}
+
+	/**
+	 * Counts a finished game, won or failed, toward this run. Safe to call from any thread.
+	 */
+	public void gameFinished() {
+		if (games.incrementAndGet() == warmupGames) {
+			warmupEndNanos = System.nanoTime();
+		}
+	}
+
+	/**
+	 * Stops measuring, and appends the JSON line if -Dhanabi.runReport is set.
+	 */
+	public void finish() {
+		endNanos = System.nanoTime();
+		long[] ids = THREADS.getAllThreadIds();
+		long[] bytes = THREADS.getThreadAllocatedBytes(ids);
+		for (int i = 0; i < ids.length; i++) {
+			long delta = bytes[i] - startBytes.getOrDefault(ids[i], 0L);
+			if (bytes[i] > 0 && delta > 0) {
+				allocatedBytes += delta;
+				threadsCounted++;
+			}
+		}
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			long[] before = startGc.getOrDefault(gc.getName(), new long[2]);
+			gcDelta.put(gc.getName(), new long[] { gc.getCollectionCount() - before[0], gc.getCollectionTime() - before[1] });
+		}
+		if (JSON_FILE != null) {
+			try {
+				Files.write(Paths.get(JSON_FILE), List.of(toJson()), StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+						StandardOpenOption.APPEND);
+			}
+			catch (IOException e) {
+				System.out.println("RunReport - cannot write " + JSON_FILE + ": " + e);
+			}
+		}
+	}
+
+	private double seconds() {
+		return (endNanos - startNanos) / 1e9;
+	}
+
+	private double gamesPerSecond() {
+		return games.get() / seconds();
+	}
+
+	/**
+	 * @return games per second during warm-up, or 0 if the run ended before warm-up did
+	 */
+	private double warmupRate() {
+		long end = warmupEndNanos;
+		return (end == 0) ? 0.0 : warmupGames / ((end - startNanos) / 1e9);
+	}
+
+	/**
+	 * @return games per second after warm-up, or 0 if there were no games after it
+	 */
+	private double steadyRate() {
+		long end = warmupEndNanos;
+		long after = games.get() - warmupGames;
+		return (end == 0 || after <= 0 || endNanos == end) ? 0.0 : after / ((endNanos - end) / 1e9);
+	}
+
+	private double bytesPerGame() {
+		return (games.get() == 0) ? 0.0 : allocatedBytes / (double) games.get();
+	}
+
+	private long gcTotal(int field) {
+		long total = 0;
+		for (long[] d : gcDelta.values()) {
+			total += d[field];
+		}
+		return total;
+	}
+
+	public String format() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("Run %s: %d games in %.2f s (%.0f games/s)%n", name, games.get(), seconds(), gamesPerSecond()));
+		sb.append(String.format("  warm-up (first %d games) %.0f games/s, steady state %.0f games/s%n", warmupGames,
+				warmupRate(), steadyRate()));
+		sb.append(String.format("  allocated %.1f MB in %d threads, %.0f bytes/game%n", allocatedBytes / 1e6,
+				threadsCounted, bytesPerGame()));
+		sb.append(String.format("  GC: %d collections, %d ms", gcTotal(0), gcTotal(1)));
+		for (Map.Entry<String, long[]> e : gcDelta.entrySet()) {
+			sb.append(String.format("; %s %d/%d ms", e.getKey(), e.getValue()[0], e.getValue()[1]));
+		}
+		sb.append(String.format("%n"));
+		return sb.toString();
+	}
+
+	public String toJson() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format(Locale.ROOT, "{\"run\":\"%s\",\"startMillis\":%d,\"games\":%d,\"seconds\":%.3f,\"gamesPerSecond\":%.1f,",
+				name, startMillis, games.get(), seconds(), gamesPerSecond()));
+		sb.append(String.format(Locale.ROOT, "\"warmupGames\":%d,\"warmupGamesPerSecond\":%.1f,\"steadyGamesPerSecond\":%.1f,",
+				warmupGames, warmupRate(), steadyRate()));
+		sb.append(String.format(Locale.ROOT, "\"allocatedBytes\":%d,\"threads\":%d,\"bytesPerGame\":%.0f,", allocatedBytes,
+				threadsCounted, bytesPerGame()));
+		sb.append(String.format(Locale.ROOT, "\"gcCount\":%d,\"gcMillis\":%d,\"gc\":{", gcTotal(0), gcTotal(1)));
+		String sep = "";
+		for (Map.Entry<String, long[]> e : gcDelta.entrySet()) {
+			sb.append(String.format(Locale.ROOT, "%s\"%s\":{\"count\":%d,\"millis\":%d}", sep, e.getKey(), e.getValue()[0],
+					e.getValue()[1]));
+			sep = ",";
+		}
+		sb.append("}}");
+		return sb.toString();
+	}
+}
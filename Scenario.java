@@ -0,0 +1,379 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A described mid-game position to start games from, so rare situations can be benchmarked directly
+ * instead of waiting for them to come up in full games.
+ *
+ * Scenarios are written one per block; everything after # is a comment and only the hand lines are
+ * required:
+ * <pre>
+ * scenario critical-five-on-chop
+ * hints 0
+ * fuses 1
+ * tableau 1 0 2 0 3            # suit heights, in Colors order: red yellow blue green white
+ * discards R1 R1 B5
+ * hand0 R2 Y3 G1 W4 G5         # slot 0 first
+ * hand1 B3 Y1 W5 R3 G2
+ * clues0 - - - 4 -             # what player 0 has been told per slot: "-", a color letter, a value, or both ("G5")
+ * clues1 B - - - -
+ * toMove 0
+ * deck R4 Y2 ...               # optional: the deck in draw order; otherwise every unseen card, shuffled
+ * deckSize 10                  # optional: keep only this many of the shuffled unseen cards
+ * </pre>
+ * Clues on a player's hand are what that player knows about their own cards, and also mark which of
+ * their partner's cards the other player has hinted. See Hanabi(boolean, Player, Player, Scenario, long).
+ */
+public class Scenario {
+	private static final String COLOR_LETTERS = "RYBGW";
+
+	public final String name;
+	public final int numHints;
+	public final int numFuses;
+	public final int toMove;
+	private final int[] tableau;
+	private final List<Card> discards;
+	private final List<List<Card>> hands;
+	private final int[][] clueColors;	// [player][slot], -1 for none
+	private final int[][] clueValues;	// [player][slot], -1 for none
+	private final List<Card> deck;		// draw order; null to shuffle the unseen cards
+	private final int deckSize;			// -1 for every unseen card
+
+	private Scenario(String name, int numHints, int numFuses, int toMove, int[] tableau, List<Card> discards,
+			List<List<Card>> hands, int[][] clueColors, int[][] clueValues, List<Card> deck, int deckSize) {
+		this.name = name;
+		this.numHints = numHints;
+		this.numFuses = numFuses;
+		this.toMove = toMove;
+		this.tableau = tableau;
+		this.discards = discards;
+		this.hands = hands;
+		this.clueColors = clueColors;
+		this.clueValues = clueValues;
+		this.deck = deck;
+		this.deckSize = deckSize;
+	}
+
+	public int tableau(int color) {
+		return tableau[color];
+	}
+
+	public List<Card> getDiscards() {
+		return new ArrayList<Card>(discards);
+	}
+
+	public Hand getHand(int player) {
+		Hand h = new Hand();
+		for (Card c : hands.get(player)) {
+			h.add(h.size(), c);
+		}
+		return h;
+	}
+
+	/**
+	 * @return the color the player has been told for each slot, -1 where none
+	 */
+	public int[] getClueColors(int player) {
+		return clueColors[player].clone();
+	}
+
+	/**
+	 * @return the value the player has been told for each slot, -1 where none
+	 */
+	public int[] getClueValues(int player) {
+		return clueValues[player].clone();
+	}
+
+	/**
+	 * @return which of the partner's slots player has hinted, as bits in Player.getHintFlags() form
+	 */
+	public int getHintFlags(int player) {
+		int partner = 1 - player;
+		int flags = 0;
+		for (int slot = 0; slot < hands.get(partner).size(); slot++) {
+			if (clueColors[partner][slot] >= 0) {
+				flags |= 1 << slot;
+			}
+			if (clueValues[partner][slot] >= 0) {
+				flags |= 1 << (slot + 5);
+			}
+		}
+		return flags;
+	}
+
+	/**
+	 * @return the explicit deck in draw order, or null if the unseen cards are to be shuffled
+	 */
+	public List<Card> getDeck() {
+		return (deck == null) ? null : new ArrayList<Card>(deck);
+	}
+
+	/**
+	 * @return how many shuffled unseen cards the deck keeps; -1 for all of them
+	 */
+	public int getDeckSize() {
+		return deckSize;
+	}
+
+	/**
+	 * @return every card not in a hand, the discards or the tableau, in a fixed order
+	 */
+	public List<Card> unseenCards() {
+		int[] left = remainingCopies(null);
+		List<Card> unseen = new ArrayList<Card>();
+		for (int color = Colors.MIN_COLOR; color <= Colors.MAX_COLOR; color++) {
+			for (int value = Card.MIN_VALUE; value <= Card.MAX_VALUE; value++) {
+				for (int n = 0; n < left[CardKnowledge.bitOf(color, value)]; n++) {
+					unseen.add(new Card(color, value));
+				}
+			}
+		}
+		return unseen;
+	}
+
+	/**
+	 * @param extra Cards also to count as used; may be null.
+	 * @return copies of each card identity not accounted for, indexed by CardKnowledge.bitOf()
+	 * @throws IllegalArgumentException if more copies of a card are used than exist
+	 */
+	private int[] remainingCopies(List<Card> extra) {
+		int[] left = new int[Zobrist.NUM_CARDS];
+		for (int i = 0; i < left.length; i++) {
+			left[i] = Card.copiesOf(i % Card.MAX_VALUE + Card.MIN_VALUE);
+		}
+		List<Card> used = new ArrayList<Card>(discards);
+		for (List<Card> h : hands) {
+			used.addAll(h);
+		}
+		for (int color = Colors.MIN_COLOR; color <= Colors.MAX_COLOR; color++) {
+			for (int value = Card.MIN_VALUE; value <= tableau[color]; value++) {
+				used.add(new Card(color, value));
+			}
+		}
+		if (extra != null) {
+			used.addAll(extra);
+		}
+		for (Card c : used) {
+			if (--left[CardKnowledge.bitOf(c.color, c.value)] < 0) {
+				throw new IllegalArgumentException("Scenario " + name + " - more copies of " + c + " than the deck has");
+			}
+		}
+		return left;
+	}
+
+	/**
+	 * @return every scenario in text, in order
+	 * @throws IllegalArgumentException on a malformed or impossible scenario
+	 */
+	public static List<Scenario> parseAll(String text) {
+		List<Scenario> scenarios = new ArrayList<Scenario>();
+		List<String> block = new ArrayList<String>();
+		List<Integer> lineNumbers = new ArrayList<Integer>();
+		String[] lines = text.split("\r?\n");
+		for (int i = 0; i <= lines.length; i++) {
+			String line = (i < lines.length) ? lines[i].replaceAll("#.*", "").trim() : "scenario";
+			if (line.startsWith("scenario") && !block.isEmpty()) {
+				scenarios.add(parseBlock(block, lineNumbers));
+				block.clear();
+				lineNumbers.clear();
+			}
+			if (!line.isEmpty()) {
+				block.add(line);
+				lineNumbers.add(i + 1);
+			}
+		}
+		return scenarios;
+	}
+
+	public static List<Scenario> load(Path file) throws IOException {
+		return parseAll(Files.readString(file));
+	}
+
+	private static Scenario parseBlock(List<String> block, List<Integer> lineNumbers) {
+		String name = "scenario@" + lineNumbers.get(0);
+		int numHints = 8;
+		int numFuses = 3;
+		int toMove = 0;
+		int[] tableau = new int[5];
+		List<Card> discards = new ArrayList<Card>();
+		List<List<Card>> hands = new ArrayList<List<Card>>();
+		hands.add(null);
+		hands.add(null);
+		int[][] clueColors = new int[2][Hanabi.HAND_SIZE];
+		int[][] clueValues = new int[2][Hanabi.HAND_SIZE];
+		for (int[] row : clueColors) {
+			Arrays.fill(row, -1);
+		}
+		for (int[] row : clueValues) {
+			Arrays.fill(row, -1);
+		}
+		List<Card> deck = null;
+		int deckSize = -1;
+
+		for (int n = 0; n < block.size(); n++) {
+			String where = "Scenario.parseAll() - line " + lineNumbers.get(n) + ": ";
+			String[] words = block.get(n).split("\\s+");
+			String[] args = Arrays.copyOfRange(words, 1, words.length);
+			try {
+				switch (words[0]) {
+					case "scenario" -> name = (args.length > 0) ? args[0] : name;
+					case "hints" -> numHints = inRange(args, 0, 8);
+					case "fuses" -> numFuses = inRange(args, 1, 3);
+					case "toMove" -> toMove = inRange(args, 0, 1);
+					case "deckSize" -> deckSize = inRange(args, 1, 40);
+					case "tableau" -> {
+						if (args.length != 5) {
+							throw new IllegalArgumentException("tableau needs five heights");
+						}
+						for (int c = 0; c < 5; c++) {
+							tableau[c] = inRange(new String[] { args[c] }, 0, Card.MAX_VALUE);
+						}
+					}
+					case "discards" -> discards = cards(args);
+					case "deck" -> deck = cards(args);
+					case "hand0", "hand1" -> {
+						if (args.length < 1 || args.length > Hanabi.HAND_SIZE) {
+							throw new IllegalArgumentException("a hand holds 1 to " + Hanabi.HAND_SIZE + " cards");
+						}
+						hands.set(words[0].charAt(4) - '0', cards(args));
+					}
+					case "clues0", "clues1" -> {
+						int player = words[0].charAt(5) - '0';
+						if (args.length > Hanabi.HAND_SIZE) {
+							throw new IllegalArgumentException("more clues than slots");
+						}
+						for (int slot = 0; slot < args.length; slot++) {
+							parseClue(args[slot], clueColors[player], clueValues[player], slot);
+						}
+					}
+					default -> throw new IllegalArgumentException("unknown keyword " + words[0]);
+				}
+			}
+			catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException(where + e.getMessage(), e);
+			}
+		}
+		if (hands.get(0) == null || hands.get(1) == null) {
+			throw new IllegalArgumentException("Scenario.parseAll() - " + name + " needs both hand0 and hand1");
+		}
+		for (int player = 0; player < 2; player++) {
+			for (int slot = 0; slot < Hanabi.HAND_SIZE; slot++) {
+				boolean clued = clueColors[player][slot] >= 0 || clueValues[player][slot] >= 0;
+				if (clued && slot >= hands.get(player).size()) {
+					throw new IllegalArgumentException("Scenario.parseAll() - " + name + " clues an empty slot");
+				}
+				if (clued) {
+					Card c = hands.get(player).get(slot);
+					if ((clueColors[player][slot] >= 0 && clueColors[player][slot] != c.color)
+							|| (clueValues[player][slot] >= 0 && clueValues[player][slot] != c.value)) {
+						throw new IllegalArgumentException("Scenario.parseAll() - " + name + " has a clue that does not match " + c);
+					}
+				}
+			}
+		}
+		Scenario s = new Scenario(name, numHints, numFuses, toMove, tableau, discards, hands, clueColors,
+				clueValues, deck, deckSize);
+		s.checkCards("Scenario.parseAll() - ");
+		return s;
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the scenario uses more copies of a card than exist, leaves no
+	 * deck, has a short hand, or is already won
+	 */
+	private void checkCards(String where) {
+		remainingCopies(deck); // rejects impossible card counts
+		// Hands only shrink once the deck is empty, and the deck is never empty here.
+		for (int player = 0; player < 2; player++) {
+			if (hands.get(player).size() != Hanabi.HAND_SIZE) {
+				throw new IllegalArgumentException(where + name + " gives player " + player + " "
+						+ hands.get(player).size() + " cards; with cards left to draw, hands hold " + Hanabi.HAND_SIZE);
+			}
+		}
+		int score = 0;
+		for (int height : tableau) {
+			score += height;
+		}
+		if (score == 5 * Card.MAX_VALUE) {
+			throw new IllegalArgumentException(where + name + " has a full tableau; the game would be over");
+		}
+		if (deck != null && deck.isEmpty()) {
+			throw new IllegalArgumentException(where + name + " has an empty deck; the game would be over");
+		}
+		if (deck == null && unseenCards().size() < Math.max(1, deckSize)) {
+			throw new IllegalArgumentException(where + name + " has too few unseen cards for its deck");
+		}
+	}
+
+	/**
+	 * A scenario for a position reached in play, for players that search by finishing games from it.
+	 * The deck is every unseen card, shuffled by the Hanabi constructor and cut to board.deckSize.
+	 * Clues are not checked against the cards; the caller is expected to build them from the hands.
+	 * @param hands Both hands, player 0's first.
+	 * @param clueColors The color each player has been told per slot, [player][slot], -1 for none.
+	 * @param clueValues The value each player has been told per slot, -1 for none.
+	 * @throws IllegalArgumentException if the position uses more copies of a card than exist, or has no deck
+	 */
+	public static Scenario of(String name, Board board, Hand[] hands, int[][] clueColors, int[][] clueValues,
+			int toMove) {
+		int[] tableau = new int[5];
+		for (int c = 0; c < 5; c++) {
+			tableau[c] = board.tableau.get(c);
+		}
+		List<List<Card>> cards = new ArrayList<List<Card>>();
+		for (Hand h : hands) {
+			List<Card> list = new ArrayList<Card>();
+			for (int i = 0; i < h.size(); i++) {
+				list.add(h.get(i));
+			}
+			cards.add(list);
+		}
+		Scenario s = new Scenario(name, board.numHints, board.numFuses, toMove, tableau,
+				new ArrayList<Card>(board.discards), cards, clueColors, clueValues, null, board.deckSize);
+		s.checkCards("Scenario.of() - ");
+		return s;
+	}
+
+	private static int inRange(String[] args, int min, int max) {
+		if (args.length != 1) {
+			throw new IllegalArgumentException("expected one number");
+		}
+		int n = Integer.parseInt(args[0]);
+		if (n < min || n > max) {
+			throw new IllegalArgumentException(n + " is outside " + min + "-" + max);
+		}
+		return n;
+	}
+
+	private static List<Card> cards(String[] args) {
+		List<Card> cards = new ArrayList<Card>();
+		for (String a : args) {
+			if (!a.equals("-")) {
+				cards.add(LineProtocol.parseCard(a));
+			}
+		}
+		return cards;
+	}
+
+	private static void parseClue(String clue, int[] colors, int[] values, int slot) {
+		if (clue.equals("-")) {
+			return;
+		}
+		for (char ch : clue.toCharArray()) {
+			int color = COLOR_LETTERS.indexOf(ch);
+			if (color >= 0) {
+				colors[slot] = color;
+			}
+			else if (ch >= '0' + Card.MIN_VALUE && ch <= '0' + Card.MAX_VALUE) {
+				values[slot] = ch - '0';
+			}
+			else {
+				throw new IllegalArgumentException("bad clue " + clue);
+			}
+		}
+	}
+}
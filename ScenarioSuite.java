@@ -0,0 +1,104 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Plays a file of Scenarios, many games each, and reports how a pairing of players scores from each
+ * starting position.
+ *
+ * Game g of a scenario shuffles its unseen cards with seed baseSeed + g, so two runs with the same
+ * seed face the same decks. Games that start mid-way are short, so a suite measures a rare situation
+ * far more cheaply than full games in which it seldom comes up.
+ */
+public class ScenarioSuite {
+
+	/**
+	 * Plays games from through to - 1 of one scenario on the calling thread.
+	 * @param report Counts each finished game, or null.
+	 */
+	public static ScoreStats play(Scenario scenario, Supplier<Player> first, Supplier<Player> second, long baseSeed,
+			int from, int to, RunReport report) {
+		ScoreStats stats = new ScoreStats();
+		for (int g = from; g < to; g++) {
+			long seed = GameBatch.seedFor(baseSeed, g);
+			Hanabi game = new Hanabi(false, first.get(), second.get(), scenario, seed);
+			try {
+				stats.add(game.play());
+			}
+			catch (Exception | AssertionError e) {
+				stats.addError();
+				if (ErrorLog.ENABLED) {
+					ErrorLog.record(seed, game, e);
+				}
+			}
+			if (report != null) {
+				report.gameFinished();
+			}
+		}
+		return stats;
+	}
+
+	/**
+	 * @param report Counts each finished game, or null.
+	 * @return one result per scenario, in order
+	 */
+	public static List<ScoreStats> run(List<Scenario> scenarios, Supplier<Player> first, Supplier<Player> second,
+			long baseSeed, int gamesPerScenario, ExecutorService pool, RunReport report) {
+		List<List<Future<ScoreStats>>> pending = new ArrayList<List<Future<ScoreStats>>>();
+		for (Scenario s : scenarios) {
+			List<Future<ScoreStats>> chunks = new ArrayList<Future<ScoreStats>>();
+			for (int from = 0; from < gamesPerScenario; from += GameBatch.CHUNK_SIZE) {
+				final int start = from;
+				final int end = Math.min(gamesPerScenario, from + GameBatch.CHUNK_SIZE);
+				chunks.add(pool.submit(() -> play(s, first, second, baseSeed, start, end, report)));
+			}
+			pending.add(chunks);
+		}
+		List<ScoreStats> results = new ArrayList<ScoreStats>();
+		for (List<Future<ScoreStats>> chunks : pending) {
+			results.add(GameBatch.collect(chunks));
+		}
+		return results;
+	}
+
+	/**
+	 * Usage: scenario &lt;scenarioFile&gt; &lt;gamesPerScenario&gt; &lt;baseSeed&gt; &lt;FirstPlayer&gt; [&lt;SecondPlayer&gt;]
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 4 || args.length > 5) {
+			System.out.println("Usage: scenario <scenarioFile> <gamesPerScenario> <baseSeed> <FirstPlayer> [<SecondPlayer>]");
+			return;
+		}
+		List<Scenario> scenarios = Scenario.load(Path.of(args[0]));
+		int games = Integer.parseInt(args[1]);
+		long seed = Long.parseLong(args[2]);
+		Supplier<Player> first = PlayerFactory.forName(args[3]);
+		Supplier<Player> second = PlayerFactory.forName(args[args.length - 1]);
+
+		ExecutorService pool = GameBatch.newPool();
+		long start = System.nanoTime();
+		RunReport report = RunReport.begin("scenario", (long) games * scenarios.size());
+		List<ScoreStats> results = run(scenarios, first, second, seed, games, pool, report);
+		report.finish();
+		double seconds = (System.nanoTime() - start) / 1e9;
+		pool.shutdown();
+
+		System.out.printf("%-28s %18s %10s %8s%n", "scenario", "score", "zeros", "errors");
+		for (int i = 0; i < scenarios.size(); i++) {
+			ScoreStats r = results.get(i);
+			System.out.printf("%-28s %18s %9.1f%% %8d%n", scenarios.get(i).name,
+					String.format("%.2f +/- %.2f", r.getMean(), r.getCi95()),
+					(r.getGames() == 0) ? 0.0 : 100.0 * r.getZeros() / r.getGames(), r.getErrors());
+		}
+		System.out.printf("%d games in %.1f s%n", (long) games * scenarios.size(), seconds);
+		System.out.print(report.format());
+		if (ErrorLog.ENABLED) {
+			System.out.print(ErrorLog.report());
+		}
+	}
+}
@@ -0,0 +1,129 @@
+/**
+ * Running score statistics for a batch of games.
+ *
+ * Games that threw are counted separately and do not enter getMean(); the CountingErrors variants
+ * score each of them as 0 instead, as Driver.simulateGames does. Not thread-safe; give each worker
+ * its own instance and merge() them when the workers are done.
+ */
+public class ScoreStats {
+	private long games;
+	private long total;
+	private long totalSquares;
+	private long zeros;
+	private long errors;
+
+	public void add(int score) {
+		games++;
+		total += score;
+		totalSquares += (long) score * score;
+		if (score == 0) {
+			zeros++;
+		}
+	}
+
+	public void addError() {
+		errors++;
+	}
+
+	public void merge(ScoreStats other) {
+		games += other.games;
+		total += other.total;
+		totalSquares += other.totalSquares;
+		zeros += other.zeros;
+		errors += other.errors;
+	}
+
+	public long getGames() {
+		return games;
+	}
+
+	public long getTotal() {
+		return total;
+	}
+
+	public long getZeros() {
+		return zeros;
+	}
+
+	public long getErrors() {
+		return errors;
+	}
+
+	public double getMean() {
+		return mean(games);
+	}
+
+	/**
+	 * @return the mean score with every game that threw scored as 0
+	 */
+	public double getMeanCountingErrors() {
+		return mean(games + errors);
+	}
+
+	/**
+	 * @return the sample standard deviation of the scores; 0 with fewer than two games
+	 */
+	public double getStdDev() {
+		return stdDev(games);
+	}
+
+	/**
+	 * @return the half-width of a normal-approximation 95% confidence interval for the mean
+	 */
+	public double getCi95() {
+		return ci95(games);
+	}
+
+	/**
+	 * @return getCi95() with every game that threw scored as 0
+	 */
+	public double getCi95CountingErrors() {
+		return ci95(games + errors);
+	}
+
+	private double mean(long n) {
+		return (n == 0) ? 0.0 : total / (double) n;
+	}
+
+	private double stdDev(long n) {
+		if (n < 2) {
+			return 0.0;
+		}
+		double mean = mean(n);
+		double variance = (totalSquares - n * mean * mean) / (n - 1);
+		return Math.sqrt(Math.max(0.0, variance));
+	}
+
+	private double ci95(long n) {
+		return (n < 2) ? 0.0 : 1.96 * stdDev(n) / Math.sqrt(n);
+	}
+
+	/**
+	 * @return every counter, space-separated, in the form decode() reads
+	 */
+	public String encode() {
+		return games + " " + total + " " + totalSquares + " " + zeros + " " + errors;
+	}
+
+	/**
+	 * @throws IllegalArgumentException if text is not five counters as written by encode()
+	 */
+	public static ScoreStats decode(String text) {
+		String[] words = text.trim().split("\\s+");
+		if (words.length != 5) {
+			throw new IllegalArgumentException("ScoreStats.decode() - expected five counters, got " + text);
+		}
+		ScoreStats s = new ScoreStats();
+		s.games = Long.parseLong(words[0]);
+		s.total = Long.parseLong(words[1]);
+		s.totalSquares = Long.parseLong(words[2]);
+		s.zeros = Long.parseLong(words[3]);
+		s.errors = Long.parseLong(words[4]);
+		return s;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%.3f +/- %.3f (%d games, %d zeros, %d errors)", getMean(), getCi95(), games, zeros, errors);
+	}
+}
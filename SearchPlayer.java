@@ -0,0 +1,401 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A Player that checks Player's choice of move by Monte Carlo search. Every legal action is played
+ * out to the end of the game many times, with Player's heuristics in both seats from the next turn
+ * on, and ask() switches to another action only when it clearly beats the heuristic one.
+ *
+ * A search thread repeatedly samples a world: our hidden cards, dealt at random from the cards we
+ * cannot see while keeping to what we know about each slot, and a seed for the order of the deck.
+ * It plays every action out in that world, starting each rollout from a Scenario.of() position
+ * with our first move forced. Comparing actions on the same worlds takes the luck of the deal out
+ * of the differences, which would otherwise swamp them. An action replaces the heuristic action
+ * only if it is ahead by three standard errors (enough that, of the twenty or so actions compared, one
+ * lucky one is unlikely to pass) over at least ten worlds.
+ *
+ * The search is root-parallel: hanabi.searchThreads threads (one per processor by default,
+ * counting the asking thread) sample worlds for the same decision. They add to shared per-action
+ * LongAdders, so more threads mean more worlds behind each decision and more confident departures
+ * from the heuristic. Search stops at the game's move deadline, less a small margin, or after
+ * hanabi.searchMillis (100 by default) when the game sets none.
+ */
+public class SearchPlayer extends Player {
+	public static final int SEARCH_THREADS = Math.max(1,
+			Integer.getInteger("hanabi.searchThreads", Runtime.getRuntime().availableProcessors()));
+	public static final long SEARCH_NANOS = Long.getLong("hanabi.searchMillis", 100) * 1_000_000;
+	private static final long MARGIN_NANOS = 1_000_000; // for choosing and returning the action once search stops
+	private static final int MIN_WORLDS = 10;
+	private static final double Z_SCORE = 3.0;
+	private static final int SAMPLE_TRIES = 20;
+
+	// Helpers for the asking thread; shared by every SearchPlayer, so concurrent games queue for them.
+	private static final ExecutorService POOL = (SEARCH_THREADS > 1) ? GameBatch.newPool(SEARCH_THREADS - 1) : null;
+
+	private int lastRollouts;
+
+	/**
+	 * @return rollouts run for the most recent ask()
+	 */
+	public int getLastRollouts() {
+		return lastRollouts;
+	}
+
+	@Override
+	public String ask(int yourHandSize, Hand partnerHand, Board boardState) {
+		long start = System.nanoTime();
+		long remaining = timeRemaining();
+		long deadline = start + ((remaining == Long.MAX_VALUE) ? SEARCH_NANOS : remaining - MARGIN_NANOS);
+
+		int flagsBefore = getHintFlags();
+		String heuristic = heuristicAction(yourHandSize, partnerHand, boardState);
+		Search search = new Search(legalActions(yourHandSize, partnerHand, boardState, heuristic),
+				snapshot(yourHandSize, partnerHand, boardState));
+		if (System.nanoTime() < deadline) {
+			search.run(deadline);
+		}
+		lastRollouts = (int) search.total.sum();
+
+		String action = search.best();
+		if (!action.equals(heuristic)) {
+			setHintFlags(flagsBefore);
+			markHinted(action, partnerHand);
+			decided(DecisionStats.SEARCH, action);
+		}
+		notePartnerHint(action, partnerHand);
+		return action;
+	}
+
+	/**
+	 * @return heuristic, then every other legal action except plays of cards we know cannot be played
+	 */
+	private String[] legalActions(int yourHandSize, Hand partnerHand, Board boardState, String heuristic) {
+		List<String> actions = new ArrayList<String>();
+		actions.add(heuristic);
+		for (int i = 0; i < yourHandSize; i++) {
+			if (getOurKnowledge(i).couldBePlayable(boardState)) {
+				actions.add(ActionCodec.decode(ActionCodec.PLAY + i));
+			}
+			actions.add(ActionCodec.decode(ActionCodec.DISCARD + i));
+		}
+		if (boardState.numHints > 0) {
+			int colors = 0;
+			int values = 0;
+			for (int i = 0; i < partnerHand.size(); i++) {
+				colors |= 1 << partnerHand.colorAt(i);
+				values |= 1 << (partnerHand.valueAt(i) - Card.MIN_VALUE);
+			}
+			for (int c = 0; c < 5; c++) {
+				if ((colors & (1 << c)) != 0) {
+					actions.add(ActionCodec.decode(ActionCodec.COLORHINT + c));
+				}
+				if ((values & (1 << c)) != 0) {
+					actions.add(ActionCodec.decode(ActionCodec.NUMBERHINT + c));
+				}
+			}
+		}
+		for (int i = actions.size() - 1; i > 0; i--) {
+			if (actions.get(i).equals(heuristic)) {
+				actions.remove(i);
+			}
+		}
+		return actions.toArray(new String[0]);
+	}
+
+	/**
+	 * What a rollout needs to know about the position, copied so helper threads never touch this player.
+	 */
+	private static class Position {
+		final Board board;
+		final Hand partnerHand;
+		final int handSize;
+		final int[] options;		// per slot of our hand, the identities it can be (CardKnowledge.bitOf() bits)
+		final int[] knownColors;	// per slot of our hand, -1 where we do not know
+		final int[] knownValues;
+		final int[] partnerColors;	// clues the partner holds, per slot of their hand
+		final int[] partnerValues;
+		final int[] unseen;			// copies of each identity not on the board, in the discards or in the partner's hand
+
+		Position(Board board, Hand partnerHand, int handSize) {
+			this.board = board;
+			this.partnerHand = partnerHand;
+			this.handSize = handSize;
+			options = new int[handSize];
+			knownColors = new int[handSize];
+			knownValues = new int[handSize];
+			partnerColors = new int[Hanabi.HAND_SIZE];
+			partnerValues = new int[Hanabi.HAND_SIZE];
+			unseen = new int[Zobrist.NUM_CARDS];
+		}
+	}
+
+	private Position snapshot(int yourHandSize, Hand partnerHand, Board boardState) {
+		Position p = new Position(new Board(boardState), new Hand(partnerHand), yourHandSize);
+		for (int i = 0; i < yourHandSize; i++) {
+			CardKnowledge k = getOurKnowledge(i);
+			p.options[i] = k.optionMask();
+			p.knownColors[i] = k.getKnownColor();
+			p.knownValues[i] = k.getKnownValue();
+		}
+		int clued = getPartnerKnowledge().cluedFlags();
+		for (int i = 0; i < Hanabi.HAND_SIZE; i++) {
+			boolean inHand = i < partnerHand.size();
+			p.partnerColors[i] = (inHand && (clued & (1 << i)) != 0) ? partnerHand.colorAt(i) : -1;
+			p.partnerValues[i] = (inHand && (clued & (1 << (i + Hanabi.HAND_SIZE))) != 0) ? partnerHand.valueAt(i) : -1;
+		}
+		for (int id = 0; id < Zobrist.NUM_CARDS; id++) {
+			p.unseen[id] = Card.copiesOf(id % Card.MAX_VALUE + Card.MIN_VALUE);
+		}
+		for (Card c : boardState.discards) {
+			p.unseen[CardKnowledge.bitOf(c.color, c.value)]--;
+		}
+		for (int color = 0; color < 5; color++) {
+			for (int value = Card.MIN_VALUE; value <= boardState.tableau.get(color); value++) {
+				p.unseen[CardKnowledge.bitOf(color, value)]--;
+			}
+		}
+		for (int i = 0; i < partnerHand.size(); i++) {
+			p.unseen[CardKnowledge.bitOf(partnerHand.colorAt(i), partnerHand.valueAt(i))]--;
+		}
+		return p;
+	}
+
+	/**
+	 * One decision's shared statistics, and the rollout loop every search thread runs against them.
+	 * actions[0] is the heuristic action; the others are scored by how much better they do than it.
+	 */
+	private static class Search {
+		final String[] actions;
+		final Position position;
+		final LongAdder[] diffs;	// sum over worlds of (score of this action - score of the heuristic action)
+		final LongAdder[] squares;	// sum of the squared differences
+		final LongAdder[] counts;
+		final LongAdder total = new LongAdder();
+
+		Search(String[] actions, Position position) {
+			this.actions = actions;
+			this.position = position;
+			diffs = new LongAdder[actions.length];
+			squares = new LongAdder[actions.length];
+			counts = new LongAdder[actions.length];
+			for (int a = 0; a < actions.length; a++) {
+				diffs[a] = new LongAdder();
+				squares[a] = new LongAdder();
+				counts[a] = new LongAdder();
+			}
+		}
+
+		/**
+		 * Runs rollouts on this thread and SEARCH_THREADS - 1 pool threads until deadline.
+		 */
+		void run(long deadline) {
+			List<Future<?>> helpers = new ArrayList<Future<?>>();
+			for (int t = 1; t < SEARCH_THREADS; t++) {
+				helpers.add(POOL.submit(() -> loop(deadline)));
+			}
+			loop(deadline);
+			for (Future<?> f : helpers) {
+				f.cancel(false); // a helper still queued behind another game's search has nothing left to do
+			}
+			for (Future<?> f : helpers) {
+				if (!f.isCancelled()) {
+					try {
+						f.get();
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+					catch (ExecutionException e) {
+						throw new IllegalStateException("SearchPlayer.ask() - rollout failed", e.getCause());
+					}
+				}
+			}
+		}
+
+		/**
+		 * Plays out every action in one sampled world after another. The other actions are taken in
+		 * a random rotation, so a world cut short by the deadline favors none of them. A rollout is
+		 * only started if one as long as the thread's longest so far would still end before deadline.
+		 */
+		private void loop(long deadline) {
+			ThreadLocalRandom rand = ThreadLocalRandom.current();
+			long longest = 0; // nanoseconds
+			long now = System.nanoTime();
+			while (now + longest < deadline) {
+				Hand ours = deal(position, rand);
+				long seed = rand.nextLong();
+				int base = rollout(position, ours, seed, actions[0]);
+				total.increment();
+				long end = System.nanoTime();
+				longest = Math.max(longest, end - now);
+				now = end;
+				int others = actions.length - 1;
+				int offset = (others > 0) ? rand.nextInt(others) : 0;
+				for (int i = 0; i < others && now + longest < deadline; i++) {
+					int a = 1 + (offset + i) % others;
+					int diff = rollout(position, ours, seed, actions[a]) - base;
+					diffs[a].add(diff);
+					squares[a].add(diff * diff);
+					counts[a].increment();
+					total.increment();
+					end = System.nanoTime();
+					longest = Math.max(longest, end - now);
+					now = end;
+				}
+			}
+		}
+
+		/**
+		 * @return the action that beats the heuristic action by the most, among those ahead by at
+		 * least Z_SCORE standard errors over MIN_WORLDS or more worlds; the heuristic action if none is
+		 */
+		String best() {
+			int best = 0;
+			double bestGain = 0;
+			for (int a = 1; a < actions.length; a++) {
+				long n = counts[a].sum();
+				if (n < MIN_WORLDS) {
+					continue;
+				}
+				double mean = diffs[a].sum() / (double) n;
+				double variance = Math.max(0, (squares[a].sum() - n * mean * mean) / (n - 1));
+				if (mean > bestGain && mean > Z_SCORE * Math.sqrt(variance / n)) {
+					bestGain = mean;
+					best = a;
+				}
+			}
+			return actions[best];
+		}
+	}
+
+	/**
+	 * Plays one game out from position, with ours as our hand, seed shuffling the deck, and first as our move.
+	 * @return the final score; 0 if a heuristic player threw, as Hanabi scores a broken game
+	 */
+	private static int rollout(Position p, Hand ours, long seed, String first) {
+		int[][] clueColors = new int[2][];
+		int[][] clueValues = new int[2][];
+		clueColors[0] = new int[Hanabi.HAND_SIZE];
+		clueValues[0] = new int[Hanabi.HAND_SIZE];
+		for (int i = 0; i < Hanabi.HAND_SIZE; i++) {
+			boolean inHand = i < ours.size();
+			clueColors[0][i] = (inHand && p.knownColors[i] == ours.colorAt(i)) ? p.knownColors[i] : -1;
+			clueValues[0][i] = (inHand && p.knownValues[i] == ours.valueAt(i)) ? p.knownValues[i] : -1;
+		}
+		clueColors[1] = p.partnerColors;
+		clueValues[1] = p.partnerValues;
+		Scenario s = Scenario.of("rollout", p.board, new Hand[] { ours, p.partnerHand }, clueColors, clueValues, 0);
+		try {
+			return new Hanabi(false, new FirstMove(first), new Player(), s, seed).play();
+		}
+		catch (Exception | AssertionError e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * @return a hand for us drawn from the unseen cards, each slot within its options. Slots are
+	 * filled fewest options first; if the options cannot all be met (our knowledge can be wrong), the
+	 * last try ignores them.
+	 */
+	private static Hand deal(Position p, ThreadLocalRandom rand) {
+		int[] left = new int[Zobrist.NUM_CARDS];
+		int[] dealt = new int[p.handSize];
+		for (int attempt = 0; attempt <= SAMPLE_TRIES; attempt++) {
+			System.arraycopy(p.unseen, 0, left, 0, left.length);
+			boolean ok = true;
+			for (int filled = 0; filled < p.handSize && ok; filled++) {
+				int slot = nextSlot(p, dealt, filled);
+				int mask = (attempt < SAMPLE_TRIES) ? p.options[slot] : PartnerKnowledge.ALL_OPTIONS;
+				int id = draw(left, mask, rand);
+				if (id < 0) {
+					ok = false;
+				}
+				else {
+					left[id]--;
+					dealt[filled] = slot | (id << 8);
+				}
+			}
+			if (ok) {
+				Card[] cards = new Card[p.handSize];
+				for (int d : dealt) {
+					int id = d >>> 8;
+					cards[d & 0xFF] = new Card(id / Card.MAX_VALUE, id % Card.MAX_VALUE + Card.MIN_VALUE);
+				}
+				Hand h = new Hand();
+				for (Card c : cards) {
+					h.add(h.size(), c);
+				}
+				return h;
+			}
+		}
+		throw new IllegalStateException("SearchPlayer.deal() - fewer unseen cards than slots in our hand");
+	}
+
+	/**
+	 * @return the unfilled slot with the fewest options
+	 */
+	private static int nextSlot(Position p, int[] dealt, int filled) {
+		int best = -1;
+		for (int slot = 0; slot < p.handSize; slot++) {
+			boolean done = false;
+			for (int f = 0; f < filled; f++) {
+				done |= (dealt[f] & 0xFF) == slot;
+			}
+			if (!done && (best < 0 || Integer.bitCount(p.options[slot]) < Integer.bitCount(p.options[best]))) {
+				best = slot;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * @return an identity within mask, chosen in proportion to the copies left; -1 if none are left
+	 */
+	private static int draw(int[] left, int mask, ThreadLocalRandom rand) {
+		int weight = 0;
+		for (int m = mask; m != 0; m &= m - 1) {
+			weight += left[Integer.numberOfTrailingZeros(m)];
+		}
+		if (weight == 0) {
+			return -1;
+		}
+		int r = rand.nextInt(weight);
+		for (int m = mask; ; m &= m - 1) {
+			int id = Integer.numberOfTrailingZeros(m);
+			r -= left[id];
+			if (r < 0) {
+				return id;
+			}
+		}
+	}
+
+	/**
+	 * Player's heuristics, except that the first ask() gives a fixed action.
+	 */
+	private static class FirstMove extends Player {
+		private String first;
+
+		FirstMove(String first) {
+			this.first = first;
+		}
+
+		@Override
+		public String ask(int yourHandSize, Hand partnerHand, Board boardState) {
+			if (first == null) {
+				return super.ask(yourHandSize, partnerHand, boardState);
+			}
+			String action = first;
+			first = null;
+			markHinted(action, partnerHand);
+			notePartnerHint(action, partnerHand);
+			return action;
+		}
+	}
+}
@@ -0,0 +1,344 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Splits games 0 to games - 1 of a base seed into shards and hands them to ShardWorker processes,
+ * which may run on this host or others, so a run is not limited to one JVM's heap and collector.
+ *
+ * Workers connect over TCP and say "HELLO &lt;threads&gt;". The coordinator then sends one shard at a time:
+ * <pre>
+ * SHARD &lt;index&gt; &lt;fromGame&gt; &lt;toGame&gt; &lt;baseSeed&gt; &lt;FirstPlayer&gt; &lt;SecondPlayer&gt;
+ * DONE
+ * </pre>
+ * and the worker streams back
+ * <pre>
+ * PARTIAL &lt;index&gt; &lt;ScoreStats.encode() of games since the last PARTIAL&gt;
+ * RESULT &lt;index&gt; &lt;ScoreStats.encode() of the whole shard&gt;
+ * </pre>
+ * before being given the next shard. A shard whose worker disconnects before its RESULT goes back on
+ * the queue and its partial results are dropped, so every game is counted exactly once. The final
+ * statistics merge shards in order and match a single-process run of the same seeds.
+ */
+public class ShardCoordinator {
+	private static final long REPORT_MILLIS = 2000;
+
+	private final int games;
+	private final long baseSeed;
+	private final String first;
+	private final String second;
+	private final ScoreStats[] shards;		// null until the shard's RESULT arrives
+	private final ScoreStats[] partial;		// games reported so far by the shard's current worker
+	private final Deque<Integer> queue = new ArrayDeque<Integer>();
+	private int shardsDone;
+	private int workers;
+
+	public ShardCoordinator(int games, long baseSeed, String first, String second) {
+		this.games = games;
+		this.baseSeed = baseSeed;
+		this.first = first;
+		this.second = second;
+		int n = (games + CheckpointedRun.SHARD_GAMES - 1) / CheckpointedRun.SHARD_GAMES;
+		shards = new ScoreStats[n];
+		partial = new ScoreStats[n];
+		for (int i = 0; i < n; i++) {
+			queue.add(i);
+		}
+	}
+
+	/**
+	 * @return the next shard to run, waiting while every remaining shard is out with a worker in case
+	 *         one comes back; null once all are done
+	 */
+	private synchronized Integer nextShard() throws InterruptedException {
+		while (queue.isEmpty() && shardsDone < shards.length) {
+			wait();
+		}
+		Integer shard = queue.poll();
+		if (shard != null) {
+			partial[shard] = new ScoreStats();
+		}
+		return shard;
+	}
+
+	private synchronized void addPartial(int shard, ScoreStats s) {
+		if (partial[shard] != null) {
+			partial[shard].merge(s);
+		}
+	}
+
+	private synchronized void complete(int shard, ScoreStats s) {
+		if (shards[shard] == null) {
+			shards[shard] = s;
+			shardsDone++;
+		}
+		partial[shard] = null;
+		notifyAll();
+	}
+
+	private synchronized void requeue(int shard) {
+		partial[shard] = null;
+		if (shards[shard] == null) {
+			queue.addFirst(shard);
+		}
+		notifyAll();
+	}
+
+	private synchronized void workerJoined(int delta) {
+		workers += delta;
+	}
+
+	public synchronized boolean isDone() {
+		return shardsDone == shards.length;
+	}
+
+	/**
+	 * @return finished shards merged in order, plus whatever running shards have reported
+	 */
+	public synchronized ScoreStats snapshot(boolean includePartial) {
+		ScoreStats total = new ScoreStats();
+		for (int i = 0; i < shards.length; i++) {
+			if (shards[i] != null) {
+				total.merge(shards[i]);
+			}
+			else if (includePartial && partial[i] != null) {
+				total.merge(partial[i]);
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Accepts workers on their own threads until every shard is done.
+	 */
+	public void serve(ServerSocket server) {
+		Thread acceptor = new Thread(() -> {
+			while (!server.isClosed()) {
+				try {
+					Socket socket = server.accept();
+					Thread t = new Thread(() -> handle(socket), "shard-worker-" + socket.getRemoteSocketAddress());
+					t.setDaemon(true);
+					t.start();
+				}
+				catch (IOException e) {
+					// closed once the run is done
+				}
+			}
+		}, "shard-acceptor");
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	private void handle(Socket socket) {
+		Integer shard = null;
+		workerJoined(1);
+		try (socket) {
+			socket.setTcpNoDelay(true);
+			BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+			PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII);
+			String hello = in.readLine();
+			if (hello == null || !hello.startsWith("HELLO")) {
+				return;
+			}
+			while ((shard = nextShard()) != null) {
+				int from = shard * CheckpointedRun.SHARD_GAMES;
+				int to = Math.min(games, from + CheckpointedRun.SHARD_GAMES);
+				out.println("SHARD " + shard + " " + from + " " + to + " " + baseSeed + " " + first + " " + second);
+				while (true) {
+					String line = in.readLine();
+					if (line == null) {
+						throw new IOException("worker disconnected");
+					}
+					String[] words = line.split(" ", 3);
+					if (words.length != 3 || Integer.parseInt(words[1]) != shard) {
+						throw new IOException("unexpected line " + line);
+					}
+					if (words[0].equals("PARTIAL")) {
+						addPartial(shard, ScoreStats.decode(words[2]));
+					}
+					else if (words[0].equals("RESULT")) {
+						complete(shard, ScoreStats.decode(words[2]));
+						break;
+					}
+					else {
+						throw new IOException("unexpected line " + line);
+					}
+				}
+				shard = null;
+			}
+			out.println("DONE");
+		}
+		catch (IOException | RuntimeException e) {
+			System.out.println("Worker " + socket.getRemoteSocketAddress() + " lost: " + e.getMessage());
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		finally {
+			if (shard != null) {
+				requeue(shard);
+			}
+			workerJoined(-1);
+		}
+	}
+
+	/**
+	 * Starts n workers on this host as child JVMs with the same java and classpath, connecting over loopback.
+	 * Each gets this JVM's options (-ea, -D settings and the rest), so its players are configured the
+	 * way PlayerFactory.forName() checked them here, and hanabi.searchThreads set to its share of
+	 * the processors unless given explicitly. An error log named by hanabi.errors gets a per-worker
+	 * suffix, so the workers do not overwrite each other's entries.
+	 */
+	private static List<Process> spawn(int n, int port) throws IOException {
+		String java = ProcessHandle.current().info().command().orElse("java");
+		int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / Math.max(1, n));
+		List<Process> children = new ArrayList<Process>();
+		for (int i = 0; i < n; i++) {
+			List<String> command = new ArrayList<String>();
+			command.add(java);
+			command.addAll(jvmOptions(threads, i));
+			command.addAll(List.of("-cp", System.getProperty("java.class.path"), "Driver", "worker",
+					InetAddress.getLoopbackAddress().getHostAddress(), String.valueOf(port), String.valueOf(threads)));
+			ProcessBuilder pb = new ProcessBuilder(command);
+			pb.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+			pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+			children.add(pb.start());
+		}
+		return children;
+	}
+
+	/**
+	 * @return true if children is not empty and none of them is still running
+	 */
+	private static boolean allExited(List<Process> children) {
+		if (children.isEmpty()) {
+			return false;
+		}
+		for (Process p : children) {
+			if (p.isAlive()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static String exitCodes(List<Process> children) {
+		StringBuilder sb = new StringBuilder("exit codes");
+		for (Process p : children) {
+			sb.append(' ').append(p.exitValue());
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * @return the options to start worker number i with: this JVM's own, less any debugger agent
+	 * (its port would clash), then every hanabi.* property not already among them
+	 */
+	private static List<String> jvmOptions(int threads, int i) {
+		List<String> options = new ArrayList<String>();
+		for (String arg : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+			if (arg.contains("jdwp")) {
+				continue;
+			}
+			if (arg.startsWith("-Dhanabi.errors=")) {
+				arg = arg + ".worker" + i;
+			}
+			options.add(arg);
+		}
+		Properties props = System.getProperties();
+		for (String name : props.stringPropertyNames()) {
+			if (!name.startsWith("hanabi.")) {
+				continue;
+			}
+			String value = name.equals("hanabi.errors") ? props.getProperty(name) + ".worker" + i : props.getProperty(name);
+			if (!options.contains("-D" + name + "=" + value)) {
+				options.add("-D" + name + "=" + value);
+			}
+		}
+		if (System.getProperty("hanabi.searchThreads") == null) {
+			options.add("-Dhanabi.searchThreads=" + threads);
+		}
+		return options;
+	}
+
+	/**
+	 * Usage: coordinate &lt;port&gt; &lt;games&gt; &lt;baseSeed&gt; &lt;FirstPlayer&gt; [&lt;SecondPlayer&gt;] [--spawn N] [--bind address]
+	 * The port is on loopback unless --bind gives another address, such as 0.0.0.0 for remote workers.
+	 * If every spawned worker exits while shards are left and no other worker is connected, the run
+	 * fails instead of waiting.
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		List<String> rest = new ArrayList<String>(List.of(args));
+		int spawn = 0;
+		String bind = null;
+		int flag;
+		if ((flag = rest.indexOf("--spawn")) >= 0 && flag + 1 < rest.size()) {
+			spawn = Integer.parseInt(rest.remove(flag + 1));
+			rest.remove(flag);
+		}
+		if ((flag = rest.indexOf("--bind")) >= 0 && flag + 1 < rest.size()) {
+			bind = rest.remove(flag + 1);
+			rest.remove(flag);
+		}
+		if (rest.size() < 4 || rest.size() > 5) {
+			System.out.println("Usage: coordinate <port> <games> <baseSeed> <FirstPlayer> [<SecondPlayer>] [--spawn N] [--bind address]");
+			return;
+		}
+		PlayerFactory.forName(rest.get(3)); // fail here rather than in every worker
+		PlayerFactory.forName(rest.get(rest.size() - 1));
+		ShardCoordinator c = new ShardCoordinator(Integer.parseInt(rest.get(1)), Long.parseLong(rest.get(2)), rest.get(3),
+				rest.get(rest.size() - 1));
+		InetAddress address = (bind == null) ? InetAddress.getLoopbackAddress() : InetAddress.getByName(bind);
+		long start = System.nanoTime();
+		try (ServerSocket server = new ServerSocket(Integer.parseInt(rest.get(0)), 50, address)) {
+			c.serve(server);
+			List<Process> children = spawn(spawn, server.getLocalPort());
+			System.out.printf("Coordinating %d shards on %s:%d%n", c.shards.length, address.getHostAddress(),
+					server.getLocalPort());
+			long lastReport = System.nanoTime();
+			while (!c.isDone()) {
+				synchronized (c) {
+					c.wait(REPORT_MILLIS);
+				}
+				if (!c.isDone() && allExited(children)) {
+					synchronized (c) {
+						if (c.workers == 0) {
+							throw new IllegalStateException("ShardCoordinator.main() - every spawned worker exited ("
+									+ exitCodes(children) + ") with " + (c.shards.length - c.shardsDone)
+									+ " shards left and no other worker connected; see their errors above");
+						}
+					}
+				}
+				if (System.nanoTime() - lastReport < REPORT_MILLIS * 1_000_000 || c.isDone()) {
+					continue;
+				}
+				lastReport = System.nanoTime();
+				ScoreStats live = c.snapshot(true);
+				double seconds = (lastReport - start) / 1e9;
+				synchronized (c) {
+					System.out.printf("%d/%d shards, %d workers, %d games, mean %.3f, %.0f games/s%n", c.shardsDone,
+							c.shards.length, c.workers, live.getGames() + live.getErrors(), live.getMean(),
+							(live.getGames() + live.getErrors()) / seconds);
+				}
+			}
+			for (Process p : children) {
+				p.waitFor();
+			}
+		}
+		ScoreStats total = c.snapshot(false);
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.println(total);
+		System.out.printf("%.1f s, %.0f games/s%n", seconds, (total.getGames() + total.getErrors()) / seconds);
+	}
+}
@@ -0,0 +1,87 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Runs shards for a ShardCoordinator until it says DONE. Each shard is played in GameBatch chunks
+ * across this process's pool, and each chunk's statistics are sent as a PARTIAL line as soon as it
+ * and the chunks before it are finished, so the coordinator's running totals stay current.
+ */
+public class ShardWorker {
+	private final Map<String, Supplier<Player>> factories = new HashMap<String, Supplier<Player>>();
+
+	private Supplier<Player> factory(String name) {
+		return factories.computeIfAbsent(name, PlayerFactory::forName);
+	}
+
+	/**
+	 * @return the number of shards run
+	 */
+	public int work(String host, int port, ExecutorService pool, int threads) throws IOException {
+		int shardsRun = 0;
+		try (Socket socket = new Socket(host, port)) {
+			socket.setTcpNoDelay(true);
+			BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+			PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII);
+			out.println("HELLO " + threads);
+			String line;
+			while ((line = in.readLine()) != null && !line.equals("DONE")) {
+				String[] words = line.split(" ");
+				if (words.length != 7 || !words[0].equals("SHARD")) {
+					throw new IOException("ShardWorker - unexpected line " + line);
+				}
+				String shard = words[1];
+				int from = Integer.parseInt(words[2]);
+				int to = Integer.parseInt(words[3]);
+				long baseSeed = Long.parseLong(words[4]);
+				Supplier<Player> first = factory(words[5]);
+				Supplier<Player> second = factory(words[6]);
+
+				List<Future<ScoreStats>> chunks = new ArrayList<Future<ScoreStats>>();
+				for (int start = from; start < to; start += GameBatch.CHUNK_SIZE) {
+					final int s = start;
+					final int e = Math.min(to, start + GameBatch.CHUNK_SIZE);
+					chunks.add(pool.submit(() -> GameBatch.play(first, second, baseSeed, s, e)));
+				}
+				ScoreStats total = new ScoreStats();
+				for (Future<ScoreStats> chunk : chunks) {
+					ScoreStats part = GameBatch.collect(List.of(chunk));
+					total.merge(part);
+					out.println("PARTIAL " + shard + " " + part.encode());
+				}
+				out.println("RESULT " + shard + " " + total.encode());
+				shardsRun++;
+			}
+		}
+		return shardsRun;
+	}
+
+	/**
+	 * Usage: worker &lt;host&gt; &lt;port&gt; [&lt;threads&gt;]
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2 || args.length > 3) {
+			System.out.println("Usage: worker <host> <port> [<threads>]");
+			return;
+		}
+		int threads = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		ExecutorService pool = GameBatch.newPool(threads);
+		try {
+			int shards = new ShardWorker().work(args[0], Integer.parseInt(args[1]), pool, threads);
+			System.out.println("Ran " + shards + " shards");
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+}
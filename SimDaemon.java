@@ -0,0 +1,229 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A long-lived process that runs batches of games submitted as files, so the game and player code
+ * stays JIT-compiled between experiments instead of warming up again in a fresh JVM each time.
+ *
+ * Submit a job by creating &lt;name&gt;.job in the watched directory, holding one line per batch:
+ * <pre>
+ * &lt;games&gt; &lt;baseSeed&gt; &lt;FirstPlayerClass&gt; &lt;SecondPlayerClass&gt;
+ * </pre>
+ * Clients must write the file under another name (one not ending in .job) and rename it into place,
+ * so the daemon never reads half a job. As a backstop, a .job file modified in the last second is left
+ * for a later pass. The daemon claims a job by renaming it to &lt;name&gt;.running and streams results
+ * to &lt;name&gt;.out as chunks finish:
+ * <pre>
+ * PROGRESS &lt;line&gt; &lt;gamesSoFar&gt; &lt;meanSoFar&gt;
+ * RESULT &lt;line&gt; &lt;games&gt; &lt;mean&gt; &lt;ci95&gt; &lt;errors&gt; &lt;seconds&gt; &lt;gamesPerSecond&gt;
+ * ERROR &lt;line&gt; &lt;message&gt;
+ * </pre>
+ * It then renames the job to &lt;name&gt;.done. A job that cannot be read or written at all, such as one
+ * that is not ASCII, gets an ERROR line for line 0 and is renamed to &lt;name&gt;.failed, and the daemon
+ * goes on to the next job. Jobs run one at a time, in name order, each across the
+ * whole pool. Creating a file named "stop" makes the daemon exit once the current job is done.
+ */
+public class SimDaemon {
+	private static final String JOB_SUFFIX = ".job";
+	private static final String STOP_FILE = "stop";
+	private static final long SETTLE_MILLIS = 1000;
+
+	private final Path dir;
+	private final ExecutorService pool;
+	private final Map<String, Supplier<Player>> factories = new HashMap<String, Supplier<Player>>();
+	private long jobsRun;
+
+	public SimDaemon(Path dir, ExecutorService pool) {
+		this.dir = dir;
+		this.pool = pool;
+	}
+
+	/**
+	 * Runs waiting jobs, then sleeps on the directory until more arrive or the stop file appears.
+	 */
+	public void serve() throws IOException, InterruptedException {
+		Files.createDirectories(dir);
+		try (WatchService watcher = dir.getFileSystem().newWatchService()) {
+			dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+			while (!Files.exists(dir.resolve(STOP_FILE))) {
+				if (runWaitingJobs() == 0) {
+					// The poll timeout covers events lost to overflow; events only ever mean "look again".
+					WatchKey key = watcher.poll(1, TimeUnit.SECONDS);
+					if (key != null) {
+						key.pollEvents();
+						key.reset();
+					}
+				}
+			}
+		}
+		Files.deleteIfExists(dir.resolve(STOP_FILE));
+	}
+
+	/**
+	 * @return how many jobs were run, successfully or not
+	 */
+	private int runWaitingJobs() throws IOException {
+		TreeSet<Path> jobs = new TreeSet<Path>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + JOB_SUFFIX)) {
+			for (Path p : files) {
+				jobs.add(p);
+			}
+		}
+		int run = 0;
+		for (Path job : jobs) {
+			if (settled(job)) {
+				runJob(job);
+				run++;
+			}
+		}
+		return run;
+	}
+
+	/**
+	 * @return false if job was modified too recently to be sure its writer is done, or has already gone
+	 */
+	private static boolean settled(Path job) {
+		try {
+			return Files.getLastModifiedTime(job).toMillis() <= System.currentTimeMillis() - SETTLE_MILLIS;
+		}
+		catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Runs one job. Failures are written to its .out file rather than thrown, so one bad job cannot stop the daemon.
+	 */
+	private void runJob(Path job) {
+		String name = job.getFileName().toString();
+		name = name.substring(0, name.length() - JOB_SUFFIX.length());
+		Path running = dir.resolve(name + ".running");
+		try {
+			Files.move(job, running, StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (IOException e) {
+			System.out.println("SimDaemon - cannot claim " + job + ": " + e);
+			return;
+		}
+		try {
+			runLines(running, dir.resolve(name + ".out"));
+			Files.move(running, dir.resolve(name + ".done"), StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (IOException | RuntimeException e) {
+			fail(name, running, e);
+			return;
+		}
+		jobsRun++;
+		System.out.println("SimDaemon finished " + name + " (" + jobsRun + " jobs so far)");
+	}
+
+	/**
+	 * Appends an ERROR line for the whole job to its .out file and renames it to .failed.
+	 */
+	private void fail(String name, Path running, Exception e) {
+		String message = String.valueOf(e).replace('\n', ' ').replaceAll("[^\\x20-\\x7E]", "?");
+		try {
+			Files.write(dir.resolve(name + ".out"), List.of("ERROR 0 " + message), StandardCharsets.US_ASCII,
+					StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+			Files.move(running, dir.resolve(name + ".failed"), StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (IOException e2) {
+			System.out.println("SimDaemon - cannot record the failure of " + name + ": " + e2);
+		}
+		System.out.println("SimDaemon failed " + name + ": " + message);
+	}
+
+	private void runLines(Path running, Path outFile) throws IOException {
+		List<String> lines = Files.readAllLines(running, StandardCharsets.US_ASCII);
+		try (BufferedWriter out = Files.newBufferedWriter(outFile, StandardCharsets.US_ASCII)) {
+			for (int i = 0; i < lines.size(); i++) {
+				String line = lines.get(i).trim();
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+				try {
+					runBatch(i + 1, line, out);
+				}
+				catch (RuntimeException e) {
+					out.write("ERROR " + (i + 1) + " " + String.valueOf(e.getMessage()).replace('\n', ' '));
+					out.newLine();
+					out.flush();
+				}
+			}
+		}
+	}
+
+	private void runBatch(int lineNumber, String line, BufferedWriter out) throws IOException {
+		String[] words = line.split("\\s+");
+		if (words.length != 4) {
+			throw new IllegalArgumentException("SimDaemon.runBatch() - expected <games> <baseSeed> <First> <Second>");
+		}
+		int games = Integer.parseInt(words[0]);
+		long baseSeed = Long.parseLong(words[1]);
+		Supplier<Player> first = factoryFor(words[2]);
+		Supplier<Player> second = factoryFor(words[3]);
+
+		long start = System.nanoTime();
+		List<Future<ScoreStats>> chunks = GameBatch.submit(first, second, baseSeed, games, pool);
+		ScoreStats total = new ScoreStats();
+		for (Future<ScoreStats> chunk : chunks) {
+			try {
+				total.merge(chunk.get());
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("SimDaemon.runBatch() - interrupted", e);
+			}
+			catch (ExecutionException e) {
+				throw new IllegalStateException("SimDaemon.runBatch() - a chunk failed: " + e.getCause(), e.getCause());
+			}
+			if (total.getGames() + total.getErrors() < games) {
+				out.write(String.format("PROGRESS %d %d %.4f", lineNumber, total.getGames(), total.getMean()));
+				out.newLine();
+				out.flush();
+			}
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		out.write(String.format("RESULT %d %d %.4f %.4f %d %.3f %.0f", lineNumber, total.getGames(), total.getMean(),
+				total.getCi95(), total.getErrors(), seconds, games / seconds));
+		out.newLine();
+		out.flush();
+	}
+
+	private Supplier<Player> factoryFor(String className) {
+		return factories.computeIfAbsent(className, PlayerFactory::forName);
+	}
+
+	/**
+	 * Usage: daemon &lt;jobDirectory&gt; [&lt;threads&gt;]
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if (args.length < 1 || args.length > 2) {
+			System.out.println("Usage: daemon <jobDirectory> [<threads>]");
+			return;
+		}
+		ExecutorService pool = (args.length > 1) ? GameBatch.newPool(Integer.parseInt(args[1])) : GameBatch.newPool();
+		SimDaemon daemon = new SimDaemon(Path.of(args[0]), pool);
+		System.out.println("SimDaemon watching " + args[0]);
+		daemon.serve();
+		pool.shutdown();
+	}
+}
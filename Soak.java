@@ -0,0 +1,117 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Plays games flat out for a fixed time at each of several thread counts and reports engine
+ * throughput: games and turns per second, and bytes allocated per game and per turn as counted by
+ * the JVM's per-thread allocation counters. With RandomLegalPlayer in both seats almost all of that
+ * is Hanabi's own cost, so a drop between builds points at an engine regression.
+ *
+ * Each thread count first runs for a warm-up period that is not counted, so the JIT has compiled
+ * the game loop before measuring starts.
+ */
+public class Soak {
+	private static final com.sun.management.ThreadMXBean THREADS =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	/**
+	 * What one thread did while measuring.
+	 */
+	private static class Totals {
+		long games;
+		long turns;
+		long errors;
+		long bytes;
+	}
+
+	/**
+	 * Runs threads game loops for warmupMillis, then for millis while counting.
+	 */
+	public static String run(Supplier<Player> first, Supplier<Player> second, int threads, long warmupMillis,
+			long millis) throws InterruptedException {
+		AtomicLong seeds = new AtomicLong();
+		long start = System.nanoTime();
+		long measureFrom = start + warmupMillis * 1_000_000;
+		long stopAt = measureFrom + millis * 1_000_000;
+		List<Thread> workers = new ArrayList<Thread>();
+		List<Totals> totals = new ArrayList<Totals>();
+		for (int t = 0; t < threads; t++) {
+			Totals mine = new Totals();
+			totals.add(mine);
+			Thread w = new Thread(() -> loop(first, second, seeds, measureFrom, stopAt, mine), "soak-" + t);
+			workers.add(w);
+			w.start();
+		}
+		for (Thread w : workers) {
+			w.join();
+		}
+		Totals sum = new Totals();
+		for (Totals t : totals) {
+			sum.games += t.games;
+			sum.turns += t.turns;
+			sum.errors += t.errors;
+			sum.bytes += t.bytes;
+		}
+		double seconds = millis / 1000.0;
+		return String.format("%7d %12.0f %12.0f %14.0f %12.0f %8d%n", threads, sum.games / seconds,
+				sum.turns / seconds, (sum.games == 0) ? 0.0 : sum.bytes / (double) sum.games,
+				(sum.turns == 0) ? 0.0 : sum.bytes / (double) sum.turns, sum.errors);
+	}
+
+	private static void loop(Supplier<Player> first, Supplier<Player> second, AtomicLong seeds, long measureFrom,
+			long stopAt, Totals totals) {
+		long id = Thread.currentThread().getId();
+		while (System.nanoTime() < measureFrom) {
+			playOne(first, second, seeds.getAndIncrement(), new Totals());
+		}
+		long bytesBefore = THREADS.getThreadAllocatedBytes(id);
+		while (System.nanoTime() < stopAt) {
+			playOne(first, second, seeds.getAndIncrement(), totals);
+		}
+		totals.bytes = THREADS.getThreadAllocatedBytes(id) - bytesBefore;
+	}
+
+	private static void playOne(Supplier<Player> first, Supplier<Player> second, long seed, Totals totals) {
+		Hanabi game = new Hanabi(false, first.get(), second.get(), seed);
+		try {
+			game.play();
+			totals.games++;
+		}
+		catch (Exception | AssertionError e) {
+			totals.errors++;
+		}
+		totals.turns += game.getTurns();
+	}
+
+	/**
+	 * Usage: soak &lt;seconds&gt; &lt;PlayerClass&gt; [&lt;threads&gt; ...]
+	 * Thread counts default to 1 and the number of processors.
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		if (args.length < 2) {
+			System.out.println("Usage: soak <seconds> <PlayerClass> [<threads> ...]");
+			return;
+		}
+		long millis = (long) (Double.parseDouble(args[0]) * 1000);
+		Supplier<Player> player = PlayerFactory.forName(args[1]);
+		List<Integer> threadCounts = new ArrayList<Integer>();
+		for (int i = 2; i < args.length; i++) {
+			threadCounts.add(Integer.parseInt(args[i]));
+		}
+		if (threadCounts.isEmpty()) {
+			threadCounts.add(1);
+			if (Runtime.getRuntime().availableProcessors() > 1) {
+				threadCounts.add(Runtime.getRuntime().availableProcessors());
+			}
+		}
+		THREADS.setThreadAllocatedMemoryEnabled(true);
+		System.out.printf("%7s %12s %12s %14s %12s %8s%n", "threads", "games/s", "turns/s", "bytes/game", "bytes/turn",
+				"errors");
+		for (int threads : threadCounts) {
+			System.out.print(run(player, player, threads, Math.min(millis, 3000), millis));
+		}
+	}
+}
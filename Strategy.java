@@ -0,0 +1,238 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The rule list Player.ask() works through, compiled into a dispatch table.
+ *
+ * A strategy is written as text, one rule per line:
+ * <pre>
+ * tier 1
+ * hintDiscard 2
+ * play 2
+ * hint 2
+ * hintDiscard 3 when score >= 8
+ * </pre>
+ * "tier T" starts the rules used while the lowest value on the tableau is T (0-4). Each rule names a
+ * Player method (hintDiscard, play, or hint), the card value it is about, an optional "fives" flag
+ * (the careAboutFives argument), and an optional "when score >= N" guard on the tableau score.
+ * Blank lines and lines starting with # are ignored.
+ *
+ * Compiling resolves every guard ahead of time: for each tier and tableau score there is one array
+ * holding exactly the rules to try, so choosing the rules for a turn is a single table lookup.
+ */
+public class Strategy {
+	public static final int HINT_DISCARD = 0;
+	public static final int PLAY = 1;
+	public static final int HINT = 2;
+	private static final String[] OP_NAMES = { "hintDiscard", "play", "hint" };
+
+	private static final int NUM_TIERS = 6;		// lowest tableau value 0-5; tier 5 means every suit is finished
+	private static final int NUM_SCORES = 26;
+
+	private static final Map<PlayerParams, Strategy> fromParamsCache = new ConcurrentHashMap<PlayerParams, Strategy>();
+
+	public static class Rule {
+		public final int op;
+		public final int value;
+		public final boolean careAboutFives;
+		public final int minScore;
+		public final int branch;	// DecisionStats branch id
+
+		Rule(int op, int value, boolean careAboutFives, int minScore, int branch) {
+			this.op = op;
+			this.value = value;
+			this.careAboutFives = careAboutFives;
+			this.minScore = minScore;
+			this.branch = branch;
+		}
+
+		@Override
+		public String toString() {
+			return OP_NAMES[op] + " " + value + (careAboutFives ? " fives" : "")
+					+ (minScore > 0 ? " when score >= " + minScore : "");
+		}
+	}
+
+	private final List<List<Rule>> tiers;
+	private final Rule[][] table;
+
+	private Strategy(List<List<Rule>> tiers) {
+		this.tiers = tiers;
+		table = new Rule[NUM_TIERS * NUM_SCORES][];
+		for (int tier = 0; tier < NUM_TIERS; tier++) {
+			for (int score = 0; score < NUM_SCORES; score++) {
+				List<Rule> active = new ArrayList<Rule>();
+				if (tier < tiers.size()) {
+					for (Rule r : tiers.get(tier)) {
+						if (score >= r.minScore) {
+							active.add(r);
+						}
+					}
+				}
+				table[tier * NUM_SCORES + score] = active.toArray(new Rule[0]);
+			}
+		}
+	}
+
+	/**
+	 * @return the rules to try, in order, for this board
+	 */
+	public Rule[] rulesFor(Board b) {
+		int tier = Card.MAX_VALUE;
+		int score = 0;
+		for (int i = 0; i < b.tableau.size(); i++) {
+			int level = b.tableau.get(i);
+			tier = Math.min(tier, level);
+			score += level;
+		}
+		return table[tier * NUM_SCORES + score];
+	}
+
+	/**
+	 * @throws IllegalArgumentException on a malformed line, naming its line number
+	 */
+	public static Strategy parse(String text) {
+		List<List<Rule>> tiers = new ArrayList<List<Rule>>();
+		for (int i = 0; i < NUM_TIERS - 1; i++) {
+			tiers.add(new ArrayList<Rule>());
+		}
+		List<Rule> current = null;
+		int currentTier = -1;
+		String[] lines = text.split("\r?\n");
+		for (int n = 0; n < lines.length; n++) {
+			String line = lines[n].trim();
+			if (line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+			String[] words = line.split("\\s+");
+			try {
+				if (words[0].equals("tier")) {
+					currentTier = Integer.parseInt(words[1]);
+					if (currentTier < 0 || currentTier >= NUM_TIERS - 1) {
+						throw new IllegalArgumentException("tier must be 0-" + (NUM_TIERS - 2));
+					}
+					current = tiers.get(currentTier);
+					continue;
+				}
+				if (current == null) {
+					throw new IllegalArgumentException("rule before the first tier line");
+				}
+				int op = indexOf(OP_NAMES, words[0]);
+				if (op < 0) {
+					throw new IllegalArgumentException("unknown rule " + words[0]);
+				}
+				int value = Integer.parseInt(words[1]);
+				if (value < Card.MIN_VALUE || value > Card.MAX_VALUE) {
+					throw new IllegalArgumentException("value must be " + Card.MIN_VALUE + "-" + Card.MAX_VALUE);
+				}
+				int w = 2;
+				boolean fives = false;
+				if (w < words.length && words[w].equals("fives")) {
+					fives = true;
+					w++;
+				}
+				int minScore = 0;
+				if (w < words.length) {
+					if (words.length != w + 4 || !words[w].equals("when") || !words[w + 1].equals("score")
+							|| !words[w + 2].equals(">=")) {
+						throw new IllegalArgumentException("expected 'when score >= N'");
+					}
+					minScore = Integer.parseInt(words[w + 3]);
+				}
+				if (current.size() >= DecisionStats.MAX_STEPS_PER_TIER) {
+					throw new IllegalArgumentException("more than " + DecisionStats.MAX_STEPS_PER_TIER + " rules in tier " + currentTier);
+				}
+				current.add(new Rule(op, value, fives, minScore, DecisionStats.branch(currentTier, current.size())));
+			}
+			catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+				throw new IllegalArgumentException("Strategy.parse() - line " + (n + 1) + ": malformed \"" + line + "\"", e);
+			}
+			catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException("Strategy.parse() - line " + (n + 1) + ": " + e.getMessage(), e);
+			}
+		}
+		return new Strategy(tiers);
+	}
+
+	public static Strategy load(Path file) throws IOException {
+		return parse(Files.readString(file));
+	}
+
+	/**
+	 * @return the strategy loaded from the file named by -Dhanabi.strategy, or the built-in rules if unset
+	 */
+	public static Strategy getDefault() {
+		return DefaultHolder.INSTANCE;
+	}
+
+	private static class DefaultHolder {
+		static final Strategy INSTANCE = loadDefault();
+
+		private static Strategy loadDefault() {
+			String file = System.getProperty("hanabi.strategy");
+			if (file == null) {
+				return fromParams(new PlayerParams());
+			}
+			try {
+				return load(Path.of(file));
+			}
+			catch (IOException e) {
+				throw new IllegalStateException("Strategy - cannot read " + file, e);
+			}
+		}
+	}
+
+	/**
+	 * The rules Player has always used: in tier t, look after value t + 1, then value t + 2 once the
+	 * score reaches the lookahead threshold.
+	 */
+	public static Strategy fromParams(PlayerParams params) {
+		return fromParamsCache.computeIfAbsent(params, p -> {
+			StringBuilder sb = new StringBuilder();
+			for (int tier = 0; tier < NUM_TIERS - 1; tier++) {
+				sb.append("tier ").append(tier).append('\n');
+				appendRules(sb, tier + 1, p, "");
+				if (tier < PlayerParams.NUM_LOOKAHEADS) {
+					appendRules(sb, tier + 2, p, " when score >= " + p.lookahead(tier));
+				}
+			}
+			return parse(sb.toString());
+		});
+	}
+
+	private static void appendRules(StringBuilder sb, int value, PlayerParams p, String guard) {
+		String fives = p.careAboutFives(value) ? " fives" : "";
+		sb.append("hintDiscard ").append(value).append(fives).append(guard).append('\n');
+		sb.append("play ").append(value).append(guard).append('\n');
+		sb.append("hint ").append(value).append(fives).append(guard).append('\n');
+	}
+
+	private static int indexOf(String[] names, String name) {
+		for (int i = 0; i < names.length; i++) {
+			if (names[i].equals(name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return this strategy in the text format parse() reads
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (int tier = 0; tier < tiers.size(); tier++) {
+			sb.append("tier ").append(tier).append('\n');
+			for (Rule r : tiers.get(tier)) {
+				sb.append(r).append('\n');
+			}
+		}
+		return sb.toString();
+	}
+}
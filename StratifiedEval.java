@@ -0,0 +1,106 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Estimates a pairing's mean score from a stratified sample of a DealCatalog.
+ *
+ * Games are allocated to strata in proportion to their weight (at least two each, so every stratum
+ * has a variance), and stratum h plays the first n_h seeds it holds. The estimate is the weighted
+ * mean sum(W_h * mean_h), with variance sum(W_h^2 * s_h^2 / n_h). Deal luck that the strata capture
+ * drops out of that variance, so the same precision needs fewer games than seeds taken in a row; the
+ * report says how many plain games the sample was worth.
+ */
+public class StratifiedEval {
+
+	/**
+	 * @return games per stratum for a sample of about numGames
+	 */
+	public static int[] allocate(DealCatalog catalog, int numGames) {
+		int[] n = new int[DealCatalog.NUM_STRATA];
+		for (int h = 0; h < n.length; h++) {
+			int available = catalog.seedsIn(h).length;
+			n[h] = Math.min(available, Math.max(2, (int) Math.round(numGames * catalog.weight(h))));
+		}
+		return n;
+	}
+
+	/**
+	 * @param report Counts each finished game, or null.
+	 * @return one result per stratum
+	 */
+	public static ScoreStats[] run(DealCatalog catalog, int[] allocation, Supplier<Player> first,
+			Supplier<Player> second, ExecutorService pool, RunReport report) {
+		List<List<Future<ScoreStats>>> pending = new ArrayList<List<Future<ScoreStats>>>();
+		for (int h = 0; h < allocation.length; h++) {
+			long[] seeds = Arrays.copyOf(catalog.seedsIn(h), allocation[h]);
+			pending.add(GameBatch.submit(first, second, seeds, pool, report));
+		}
+		ScoreStats[] results = new ScoreStats[allocation.length];
+		for (int h = 0; h < results.length; h++) {
+			results[h] = GameBatch.collect(pending.get(h));
+		}
+		return results;
+	}
+
+	/**
+	 * Usage: stratified &lt;catalogFile&gt; &lt;games&gt; &lt;FirstPlayer&gt; [&lt;SecondPlayer&gt;]
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 3 || args.length > 4) {
+			System.out.println("Usage: stratified <catalogFile> <games> <FirstPlayer> [<SecondPlayer>]");
+			return;
+		}
+		DealCatalog catalog = DealCatalog.load(Path.of(args[0]));
+		int[] allocation = allocate(catalog, Integer.parseInt(args[1]));
+		Supplier<Player> first = PlayerFactory.forName(args[2]);
+		Supplier<Player> second = PlayerFactory.forName(args[args.length - 1]);
+
+		ExecutorService pool = GameBatch.newPool();
+		long start = System.nanoTime();
+		RunReport report = RunReport.begin("stratified", Arrays.stream(allocation).sum());
+		ScoreStats[] results = run(catalog, allocation, first, second, pool, report);
+		report.finish();
+		double seconds = (System.nanoTime() - start) / 1e9;
+		pool.shutdown();
+
+		System.out.printf("%-44s %7s %18s %8s%n", "stratum", "weight", "score", "errors");
+		double mean = 0.0;
+		double variance = 0.0;
+		double within = 0.0;
+		long games = 0;
+		for (int h = 0; h < results.length; h++) {
+			ScoreStats r = results[h];
+			double w = catalog.weight(h);
+			games += r.getGames();
+			System.out.printf("%-44s %6.1f%% %18s %8d%n", h + ": " + catalog.label(h), 100 * w,
+					String.format("%.2f +/- %.2f", r.getMean(), r.getCi95()), r.getErrors());
+			if (r.getGames() == 0) {
+				continue;
+			}
+			double s2 = r.getStdDev() * r.getStdDev();
+			mean += w * r.getMean();
+			variance += w * w * s2 / r.getGames();
+			within += w * s2;
+		}
+		// Population variance = within-stratum + between-stratum parts, which sets what a plain sample would get.
+		double between = 0.0;
+		for (int h = 0; h < results.length; h++) {
+			if (results[h].getGames() > 0) {
+				double d = results[h].getMean() - mean;
+				between += catalog.weight(h) * d * d;
+			}
+		}
+		double plainVariance = (within + between) / games;
+		System.out.printf("Stratified mean: %.3f +/- %.3f over %d games in %.1f s%n", mean, 1.96 * Math.sqrt(variance),
+				games, seconds);
+		System.out.printf("A plain sample of %d games would give +/- %.3f; this one was worth %.0f plain games%n", games,
+				1.96 * Math.sqrt(plainVariance), (variance == 0.0) ? games : (within + between) / variance);
+		System.out.print(report.format());
+	}
+}
@@ -0,0 +1,103 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Cross-play between several Player implementations.
+ *
+ * Every ordered pairing (row player moves first, column player second) plays the same seeded deals,
+ * and all pairings run at once across the pool. The result is a matrix of mean scores with 95%
+ * confidence intervals, which shows whether a bot still cooperates with older versions of itself.
+ * A game that throws scores 0 in its cell, and the cell is marked with the number of such games.
+ */
+public class Tournament {
+	private final List<String> names;
+	private final List<Supplier<Player>> factories;
+
+	/**
+	 * @param classNames Player subclasses with public no-argument constructors.
+	 */
+	public Tournament(List<String> classNames) {
+		names = new ArrayList<String>(classNames);
+		factories = new ArrayList<Supplier<Player>>();
+		for (String name : classNames) {
+			factories.add(PlayerFactory.forName(name));
+		}
+	}
+
+	/**
+	 * @param report Counts each finished game, or null.
+	 * @return results[i][j] for player i moving first with player j
+	 */
+	public ScoreStats[][] run(int gamesPerPairing, long baseSeed, ExecutorService pool, RunReport report) {
+		int n = factories.size();
+		List<List<Future<ScoreStats>>> pending = new ArrayList<List<Future<ScoreStats>>>();
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				pending.add(GameBatch.submit(factories.get(i), factories.get(j), baseSeed, gamesPerPairing, pool, report));
+			}
+		}
+		ScoreStats[][] results = new ScoreStats[n][n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				results[i][j] = GameBatch.collect(pending.get(i * n + j));
+			}
+		}
+		return results;
+	}
+
+	public String format(ScoreStats[][] results) {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("%-20s", "first \\ second"));
+		for (String name : names) {
+			sb.append(String.format(" %18s", name));
+		}
+		sb.append('\n');
+		for (int i = 0; i < results.length; i++) {
+			sb.append(String.format("%-20s", names.get(i)));
+			for (int j = 0; j < results[i].length; j++) {
+				ScoreStats cell = results[i][j];
+				String text = String.format("%.2f +/- %.2f", cell.getMeanCountingErrors(), cell.getCi95CountingErrors());
+				if (cell.getErrors() > 0) {
+					text += " !" + cell.getErrors();
+				}
+				sb.append(String.format(" %18s", text));
+			}
+			sb.append('\n');
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Usage: tournament &lt;gamesPerPairing&gt; &lt;baseSeed&gt; &lt;PlayerClass&gt; [&lt;PlayerClass&gt; ...]
+	 */
+	public static void main(String[] args) {
+		if (args.length < 3) {
+			System.out.println("Usage: tournament <gamesPerPairing> <baseSeed> <PlayerClass> [<PlayerClass> ...]");
+			return;
+		}
+		int games = Integer.parseInt(args[0]);
+		long seed = Long.parseLong(args[1]);
+		List<String> classNames = new ArrayList<String>();
+		for (int i = 2; i < args.length; i++) {
+			classNames.add(args[i]);
+		}
+		Tournament t = new Tournament(classNames);
+		ExecutorService pool = GameBatch.newPool();
+		long start = System.nanoTime();
+		RunReport report = RunReport.begin("tournament", (long) games * classNames.size() * classNames.size());
+		ScoreStats[][] results = t.run(games, seed, pool, report);
+		report.finish();
+		double seconds = (System.nanoTime() - start) / 1e9;
+		pool.shutdown();
+		System.out.print(t.format(results));
+		System.out.printf("%d games in %.1f s%n", (long) games * classNames.size() * classNames.size(), seconds);
+		System.out.print(report.format());
+		System.out.print(BatchedPolicy.reportAll());
+		if (ErrorLog.ENABLED) {
+			System.out.print(ErrorLog.report());
+		}
+	}
+}
@@ -0,0 +1,77 @@
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist hashing of a Hanabi game state.
+ *
+ * A state's hash is the XOR of one key per feature: each suit's tableau height, the hint, fuse and deck
+ * counts, how many copies of each card are discarded, the card in each hand slot, and whose turn it
+ * is. Changing one feature is two XORs (remove the old key, add the new one), which is how Hanabi
+ * keeps its hash current as moves are made. The keys come from a fixed seed, so hashes are stable
+ * between runs.
+ */
+public class Zobrist {
+	public static final int NUM_CARDS = 25; // card identities, indexed by CardKnowledge.bitOf()
+
+	private static final long[] TABLEAU = new long[5 * 6];
+	private static final long[] HINTS = new long[9];
+	private static final long[] FUSES = new long[4];
+	private static final long[] DECK = new long[51];
+	private static final long[] DISCARDS = new long[NUM_CARDS * 4];
+	private static final long[] HAND_SLOTS = new long[2 * Hanabi.HAND_SIZE * NUM_CARDS];
+	private static final long SECOND_PLAYER_TO_MOVE;
+
+	static {
+		SplittableRandom rand = new SplittableRandom(0x48414E414249L);
+		fill(TABLEAU, rand);
+		fill(HINTS, rand);
+		fill(FUSES, rand);
+		fill(DECK, rand);
+		fill(DISCARDS, rand);
+		fill(HAND_SLOTS, rand);
+		SECOND_PLAYER_TO_MOVE = rand.nextLong();
+	}
+
+	private static void fill(long[] keys, SplittableRandom rand) {
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = rand.nextLong();
+		}
+	}
+
+	public static int cardIndex(Card c) {
+		return CardKnowledge.bitOf(c.color, c.value);
+	}
+
+	/**
+	 * @param height The highest value played in that suit, 0-5.
+	 */
+	public static long tableau(int color, int height) {
+		return TABLEAU[color * 6 + height];
+	}
+
+	public static long hints(int numHints) {
+		return HINTS[numHints];
+	}
+
+	public static long fuses(int numFuses) {
+		return FUSES[Math.max(0, numFuses)];
+	}
+
+	public static long deck(int deckSize) {
+		return DECK[deckSize];
+	}
+
+	/**
+	 * @param copies How many copies of the card are in the discard pile, 0-3.
+	 */
+	public static long discards(int cardIndex, int copies) {
+		return DISCARDS[cardIndex * 4 + copies];
+	}
+
+	public static long handSlot(int player, int slot, Card c) {
+		return HAND_SLOTS[(player * Hanabi.HAND_SIZE + slot) * NUM_CARDS + cardIndex(c)];
+	}
+
+	public static long toMove(int player) {
+		return (player == 0) ? 0 : SECOND_PLAYER_TO_MOVE;
+	}
+}